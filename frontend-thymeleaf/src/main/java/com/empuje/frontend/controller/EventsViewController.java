@@ -10,9 +10,4 @@ public class EventsViewController {
     public String eventsPage() {
         return "events";
     }
-
-    @GetMapping("/events/externos")
-    public String eventosExternos() {
-        return "events/externos";
-    }
 }
@@ -1,19 +1,48 @@
 package com.empuje.frontend.controller;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
 
 @Controller
 @RequestMapping("/events")
 public class ExternalEventsController {
 
+    private static final int PAGE_SIZE = 20;
+
+    @Value("${app.messaging-url:http://localhost:8084}")
+    private String messagingUrl;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    /** Próximos eventos de otras organizaciones, desde el catálogo del servicio de mensajería. */
     @GetMapping("/externos")
-    public String eventosExternos(Model model) {
-        // Aquí se consultarían los eventos externos desde el servicio de mensajería
-        model.addAttribute("title", "Eventos Externos");
-        model.addAttribute("page", "events/externos");
-        return "layout";
+    public String eventosExternos(@RequestParam(defaultValue = "0") int page, Model model) {
+        String url = messagingUrl + "/api/messaging/eventos-externos?page=" + page + "&size=" + PAGE_SIZE;
+        List<?> events = List.of();
+        int totalPages = 0;
+        try {
+            ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
+            Map<?, ?> body = response.getBody();
+            if (body != null) {
+                events = (List<?>) body.get("content");
+                totalPages = ((Number) body.get("totalPages")).intValue();
+            }
+        } catch (RestClientException e) {
+            model.addAttribute("error", "No se pudieron obtener los eventos externos");
+        }
+        model.addAttribute("externalEvents", events);
+        model.addAttribute("currentPage", page);
+        model.addAttribute("totalPages", totalPages);
+        return "events/externos";
     }
 }
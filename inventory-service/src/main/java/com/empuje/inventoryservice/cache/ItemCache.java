@@ -0,0 +1,108 @@
+package com.empuje.inventoryservice.cache;
+
+import com.empuje.inventoryservice.grpc.gen.ItemResponse;
+import com.empuje.inventoryservice.model.Item;
+import com.empuje.inventoryservice.service.ItemChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of items by id, plus a snapshot of the full ListItems result.
+ * Entries are invalidated after the writing transaction commits, never before, so a
+ * concurrent read-through cannot repopulate the cache with uncommitted state.
+ */
+@Component
+public class ItemCache {
+
+    private final Cache<Long, Optional<Item>> items;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    /** Generation at which the inventory was found to exceed the snapshot limit, or -1. */
+    private final AtomicLong tooLargeAt = new AtomicLong(-1);
+    private final int snapshotMaxItems;
+    private final Counter snapshotHits;
+    private final Counter snapshotMisses;
+
+    public ItemCache(@Value("${inventory.cache.max-size:10000}") long maxSize,
+                     @Value("${inventory.cache.ttl-seconds:600}") long ttlSeconds,
+                     @Value("${inventory.cache.snapshot-max-items:5000}") int snapshotMaxItems,
+                     MeterRegistry meterRegistry) {
+        this.items = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.snapshotMaxItems = snapshotMaxItems;
+        CaffeineCacheMetrics.monitor(meterRegistry, items, "inventory.items");
+        this.snapshotHits = Counter.builder("inventory.items.snapshot").tag("result", "hit").register(meterRegistry);
+        this.snapshotMisses = Counter.builder("inventory.items.snapshot").tag("result", "miss").register(meterRegistry);
+    }
+
+    /** Returns the cached item, loading (and caching, including absence) on a miss. */
+    public Optional<Item> get(long id, Function<Long, Optional<Item>> loader) {
+        return items.get(id, loader);
+    }
+
+    public int getSnapshotMaxItems() {
+        return snapshotMaxItems;
+    }
+
+    /** The cached ListItems result, or null if a write happened since it was built. */
+    public List<ItemResponse> snapshot() {
+        Snapshot current = snapshot.get();
+        if (current == null) {
+            snapshotMisses.increment();
+            return null;
+        }
+        snapshotHits.increment();
+        return current.items();
+    }
+
+    /** Token to pass to {@link #installSnapshot}; read it before loading the rows. */
+    public long generation() {
+        return generation.get();
+    }
+
+    /** Installs a freshly built snapshot unless a write committed while it was being loaded. */
+    public void installSnapshot(long builtAtGeneration, List<ItemResponse> list) {
+        Snapshot candidate = new Snapshot(builtAtGeneration, List.copyOf(list));
+        snapshot.accumulateAndGet(candidate, (prev, next) ->
+                generation.get() == next.generation() ? next : prev);
+    }
+
+    /**
+     * Remembers that the inventory outgrew the snapshot limit at {@code builtAtGeneration},
+     * so full listings skip building a snapshot until the next write.
+     */
+    public void markTooLarge(long builtAtGeneration) {
+        tooLargeAt.set(builtAtGeneration);
+    }
+
+    /** Whether no write committed since the inventory was last found too large to snapshot. */
+    public boolean isTooLarge() {
+        return tooLargeAt.get() == generation.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        generation.incrementAndGet();
+        snapshot.set(null);
+        items.invalidate(event.item().getId());
+    }
+
+    private record Snapshot(long generation, List<ItemResponse> items) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.empuje.inventoryservice.grpc;
+
+import com.empuje.inventoryservice.grpc.gen.ItemChange;
+import com.empuje.inventoryservice.grpc.gen.ItemChangeType;
+import com.empuje.inventoryservice.grpc.gen.ItemResponse;
+import com.empuje.inventoryservice.model.Item;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reads the change log between two versions in version order, followed by a SYNC_END
+ * carrying the upper bound. Rows rewritten while the stream is running move above the
+ * bound and are picked up by the client's next sync.
+ */
+class ChangeLogPageSource implements ItemStreamer.PageSource<ItemChange> {
+
+    @FunctionalInterface
+    interface Query {
+        /** Returns up to {@code pageSize} items with after < change_version <= upTo, in version order. */
+        List<Item> fetch(long after, long upTo, int pageSize);
+    }
+
+    private final Query query;
+    private final Function<Item, ItemResponse> mapper;
+    private final int pageSize;
+    private final long upTo;
+
+    private long after;
+    private boolean resync;
+    private boolean exhausted;
+    private boolean ended;
+
+    ChangeLogPageSource(Query query, Function<Item, ItemResponse> mapper, int pageSize, long after, long upTo, boolean resync) {
+        this.query = query;
+        this.mapper = mapper;
+        this.pageSize = pageSize;
+        this.after = after;
+        this.upTo = upTo;
+        this.resync = resync;
+    }
+
+    @Override
+    public List<ItemChange> nextPage() {
+        if (ended) {
+            return List.of();
+        }
+        List<ItemChange> page = new ArrayList<>(pageSize + 1);
+        if (resync) {
+            resync = false;
+            page.add(ItemChange.newBuilder().setType(ItemChangeType.RESYNC).build());
+        }
+        if (!exhausted) {
+            List<Item> items = query.fetch(after, upTo, pageSize);
+            if (items.size() < pageSize) {
+                exhausted = true;
+            }
+            for (Item it : items) {
+                page.add(ItemChange.newBuilder()
+                        .setType(Boolean.TRUE.equals(it.getDeleted()) ? ItemChangeType.DELETED : ItemChangeType.UPDATED)
+                        .setItem(mapper.apply(it))
+                        .setSequence(it.getChangeVersion())
+                        .build());
+                after = it.getChangeVersion();
+            }
+        }
+        if (exhausted) {
+            ended = true;
+            page.add(ItemChange.newBuilder().setType(ItemChangeType.SYNC_END).setSequence(upTo).build());
+        }
+        return page;
+    }
+}
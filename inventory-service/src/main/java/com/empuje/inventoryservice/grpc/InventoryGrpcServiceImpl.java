@@ -1,23 +1,46 @@
 package com.empuje.inventoryservice.grpc;
 
+import com.empuje.inventoryservice.cache.ItemCache;
 import com.empuje.inventoryservice.grpc.gen.*;
 import com.empuje.inventoryservice.model.Item;
+import com.empuje.inventoryservice.repository.ItemFilter;
 import com.empuje.inventoryservice.repository.ItemRepository;
+import com.empuje.inventoryservice.service.BulkAdjustmentResult;
+import com.empuje.inventoryservice.service.CategoryAggregates;
+import com.empuje.inventoryservice.service.ChangeVersions;
+import com.empuje.inventoryservice.service.ItemService;
+import com.empuje.inventoryservice.util.ItemProtoMapper;
 import com.google.protobuf.Timestamp;
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 @Slf4j
 @GrpcService
 @RequiredArgsConstructor
 public class InventoryGrpcServiceImpl extends InventoryServiceGrpc.InventoryServiceImplBase {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
+
     private final ItemRepository itemRepository;
+    private final ItemService itemService;
+    private final ItemCache itemCache;
+    private final ItemProtoMapper itemProtoMapper;
+    private final ItemWatchHub itemWatchHub;
+    private final CategoryAggregates categoryAggregates;
+    private final ChangeVersions changeVersions;
 
     @Override
     public void addItem(AddItemRequest request, StreamObserver<ItemResponse> responseObserver) {
@@ -31,8 +54,8 @@ public class InventoryGrpcServiceImpl extends InventoryServiceGrpc.InventoryServ
                     .quantity(request.getQuantity())
                     .deleted(false)
                     .build();
-            Item saved = itemRepository.save(entity);
-            responseObserver.onNext(toResponse(saved));
+            Item saved = itemService.addItem(entity);
+            responseObserver.onNext(itemProtoMapper.toResponse(saved));
             responseObserver.onCompleted();
         } catch (IllegalArgumentException ex) {
             responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(ex.getMessage()).asRuntimeException());
@@ -45,12 +68,10 @@ public class InventoryGrpcServiceImpl extends InventoryServiceGrpc.InventoryServ
     @Override
     public void updateItem(UpdateItemRequest request, StreamObserver<ItemResponse> responseObserver) {
         try {
-            Item it = itemRepository.findById(request.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Item not found"));
-            if (!request.getDescription().isEmpty()) it.setDescription(request.getDescription());
-            if (request.getQuantity() >= 0) it.setQuantity(request.getQuantity());
-            Item saved = itemRepository.save(it);
-            responseObserver.onNext(toResponse(saved));
+            Item saved = itemService.updateItem(request.getId(),
+                    request.getDescription().isEmpty() ? null : request.getDescription(),
+                    request.getQuantity() >= 0 ? request.getQuantity() : null);
+            responseObserver.onNext(itemProtoMapper.toResponse(saved));
             responseObserver.onCompleted();
         } catch (IllegalArgumentException ex) {
             responseObserver.onError(Status.NOT_FOUND.withDescription(ex.getMessage()).asRuntimeException());
@@ -63,17 +84,12 @@ public class InventoryGrpcServiceImpl extends InventoryServiceGrpc.InventoryServ
     @Override
     public void deleteItem(DeleteItemRequest request, StreamObserver<DeleteItemResponse> responseObserver) {
         try {
-            Item it = itemRepository.findById(request.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Item not found"));
-            if (Boolean.TRUE.equals(it.getDeleted())) {
-                responseObserver.onNext(DeleteItemResponse.newBuilder().setSuccess(false).setMessage("Already deleted").build());
-                responseObserver.onCompleted();
-                return;
-            }
-            it.setDeleted(true);
-            itemRepository.save(it);
+            itemService.deleteItem(request.getId());
             responseObserver.onNext(DeleteItemResponse.newBuilder().setSuccess(true).setMessage("Deleted").build());
             responseObserver.onCompleted();
+        } catch (IllegalStateException ex) {
+            responseObserver.onNext(DeleteItemResponse.newBuilder().setSuccess(false).setMessage(ex.getMessage()).build());
+            responseObserver.onCompleted();
         } catch (IllegalArgumentException ex) {
             responseObserver.onNext(DeleteItemResponse.newBuilder().setSuccess(false).setMessage("Not found").build());
             responseObserver.onCompleted();
@@ -86,11 +102,27 @@ public class InventoryGrpcServiceImpl extends InventoryServiceGrpc.InventoryServ
     @Override
     public void listItems(ListItemsRequest request, StreamObserver<ItemResponse> responseObserver) {
         try {
-            itemRepository.findByDeletedFalseOrderByCreatedAtDesc()
-                    .stream()
-                    .map(this::toResponse)
-                    .forEach(responseObserver::onNext);
-            responseObserver.onCompleted();
+            int pageSize = request.getPageSize() <= 0 ? DEFAULT_PAGE_SIZE : Math.min(request.getPageSize(), MAX_PAGE_SIZE);
+            ItemFilter filter = toFilter(request);
+            Instant afterCreatedAt = null;
+            Long afterId = null;
+            if (request.hasAfterCreatedAt()) {
+                afterCreatedAt = toInstant(request.getAfterCreatedAt());
+                afterId = request.getAfterId() > 0 ? request.getAfterId() : Long.MAX_VALUE;
+            }
+            ItemStreamer.PageSource<ItemResponse> source;
+            if (filter.isEmpty()) {
+                source = afterCreatedAt == null
+                        ? unfilteredSource(pageSize)
+                        : new KeysetPageSource(this::fetchPage, itemProtoMapper.newSession()::toResponse, pageSize, afterCreatedAt, afterId);
+            } else {
+                // filtered listings skip the snapshot and let the database do the matching
+                source = new KeysetPageSource((after, id, size) -> itemRepository.findPage(filter, after, id, size),
+                        itemProtoMapper.newSession()::toResponse, pageSize, afterCreatedAt, afterId);
+            }
+            new ItemStreamer<>((ServerCallStreamObserver<ItemResponse>) responseObserver, source).start();
+        } catch (IllegalArgumentException ex) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(ex.getMessage()).asRuntimeException());
         } catch (Exception e) {
             log.error("listItems error", e);
             responseObserver.onError(Status.INTERNAL.withDescription("Error listing items").asRuntimeException());
@@ -98,42 +130,186 @@ public class InventoryGrpcServiceImpl extends InventoryServiceGrpc.InventoryServ
     }
 
     @Override
-    public void adjustQuantity(AdjustQtyRequest request, StreamObserver<ItemResponse> responseObserver) {
+    public void watchItems(WatchItemsRequest request, StreamObserver<ItemChange> responseObserver) {
+        try {
+            int pageSize = request.getPageSize() <= 0 ? DEFAULT_PAGE_SIZE : Math.min(request.getPageSize(), MAX_PAGE_SIZE);
+            itemWatchHub.subscribe((ServerCallStreamObserver<ItemChange>) responseObserver, () -> unfilteredSource(pageSize));
+        } catch (Exception e) {
+            log.error("watchItems error", e);
+            responseObserver.onError(Status.INTERNAL.withDescription("Error watching items").asRuntimeException());
+        }
+    }
+
+    @Override
+    public void getCategorySummary(CategorySummaryRequest request, StreamObserver<CategorySummaryResponse> responseObserver) {
         try {
-            Item it = itemRepository.findById(request.getId())
-                    .orElseThrow(() -> new IllegalArgumentException("Item not found"));
-            int newQty = it.getQuantity() + request.getDelta();
-            if (newQty < 0) {
-                responseObserver.onError(Status.FAILED_PRECONDITION.withDescription("Quantity cannot be negative").asRuntimeException());
-                return;
+            CategorySummaryResponse.Builder response = CategorySummaryResponse.newBuilder();
+            long totalItems = 0;
+            long totalUnits = 0;
+            for (CategoryAggregates.CategoryTotal total : categoryAggregates.snapshot()) {
+                response.addCategories(CategoryTotals.newBuilder()
+                        .setCategory(itemProtoMapper.toCategory(total.category()))
+                        .setItemCount(total.items())
+                        .setUnitsOnHand(total.units()));
+                totalItems += total.items();
+                totalUnits += total.units();
+            }
+            responseObserver.onNext(response.setTotalItems(totalItems).setTotalUnits(totalUnits).build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            log.error("getCategorySummary error", e);
+            responseObserver.onError(Status.INTERNAL.withDescription("Error reading category summary").asRuntimeException());
+        }
+    }
+
+    /**
+     * Streams the change log from the client's last version up to the current one. A
+     * client starting from scratch, or one that last synced before the purge horizon
+     * (and so may have missed deletes), gets the live rows only; the latter is told to
+     * drop its copy first.
+     */
+    @Override
+    public void syncItems(SyncItemsRequest request, StreamObserver<ItemChange> responseObserver) {
+        try {
+            int pageSize = request.getPageSize() <= 0 ? DEFAULT_PAGE_SIZE : Math.min(request.getPageSize(), MAX_PAGE_SIZE);
+            long since = request.getSinceVersion();
+            ChangeVersions.Horizon horizon = changeVersions.horizon();
+            boolean resync = since < 0 || since > horizon.current() || (since > 0 && since < horizon.purgedThrough());
+            ChangeLogPageSource source = resync || since == 0
+                    ? new ChangeLogPageSource((after, upTo, size) -> itemRepository.findLiveChanged(after, upTo, PageRequest.of(0, size)),
+                            itemProtoMapper.newSession()::toResponse, pageSize, 0, horizon.current(), resync)
+                    : new ChangeLogPageSource((after, upTo, size) -> itemRepository.findChanged(after, upTo, PageRequest.of(0, size)),
+                            itemProtoMapper.newSession()::toResponse, pageSize, since, horizon.current(), false);
+            new ItemStreamer<>((ServerCallStreamObserver<ItemChange>) responseObserver, source).start();
+        } catch (Exception e) {
+            log.error("syncItems error", e);
+            responseObserver.onError(Status.INTERNAL.withDescription("Error syncing items").asRuntimeException());
+        }
+    }
+
+    /**
+     * Serves a full listing from the cached snapshot, building it if the inventory fits
+     * within the snapshot limit. Larger inventories fall back to keyset streaming: the rows
+     * already loaded go out as the first pages, and the result is remembered until the next
+     * write so later listings do not load and discard them again.
+     */
+    private ItemStreamer.PageSource<ItemResponse> unfilteredSource(int pageSize) {
+        List<ItemResponse> snapshot = itemCache.snapshot();
+        if (snapshot != null) {
+            return ItemStreamer.PageSource.of(snapshot, pageSize);
+        }
+        if (itemCache.isTooLarge()) {
+            return new KeysetPageSource(this::fetchPage, itemProtoMapper.newSession()::toResponse, pageSize, null, null);
+        }
+        long generation = itemCache.generation();
+        int limit = itemCache.getSnapshotMaxItems();
+        KeysetPageSource loader = new KeysetPageSource(this::fetchPage, itemProtoMapper.newSession()::toResponse, MAX_PAGE_SIZE, null, null);
+        List<ItemResponse> loaded = new ArrayList<>();
+        for (List<ItemResponse> page = loader.nextPage(); !page.isEmpty(); page = loader.nextPage()) {
+            loaded.addAll(page);
+            if (loaded.size() > limit) {
+                itemCache.markTooLarge(generation);
+                ItemStreamer.PageSource<ItemResponse> head = ItemStreamer.PageSource.of(loaded, pageSize);
+                KeysetPageSource rest = loader.continuing(pageSize);
+                return () -> {
+                    List<ItemResponse> next = head.nextPage();
+                    return next.isEmpty() ? rest.nextPage() : next;
+                };
             }
-            it.setQuantity(newQty);
-            Item saved = itemRepository.save(it);
-            responseObserver.onNext(toResponse(saved));
+        }
+        itemCache.installSnapshot(generation, loaded);
+        return ItemStreamer.PageSource.of(loaded, pageSize);
+    }
+
+    private static ItemFilter toFilter(ListItemsRequest request) {
+        if (request.getCategory() == Category.UNRECOGNIZED) {
+            throw new IllegalArgumentException("Unknown category");
+        }
+        Integer min = request.hasMinQuantity() ? request.getMinQuantity() : null;
+        Integer max = request.hasMaxQuantity() ? request.getMaxQuantity() : null;
+        if (min != null && max != null && min > max) {
+            throw new IllegalArgumentException("min_quantity is greater than max_quantity");
+        }
+        return new ItemFilter(
+                request.getCategory() == Category.CATEGORY_UNKNOWN ? null : request.getCategory().name(),
+                min,
+                max,
+                request.getDescriptionPrefix().isEmpty() ? null : request.getDescriptionPrefix(),
+                request.hasUpdatedSince() ? toInstant(request.getUpdatedSince()) : null);
+    }
+
+    private static Instant toInstant(Timestamp ts) {
+        return Instant.ofEpochSecond(ts.getSeconds(), ts.getNanos());
+    }
+
+    private List<Item> fetchPage(Instant afterCreatedAt, Long afterId, int pageSize) {
+        PageRequest page = PageRequest.of(0, pageSize);
+        return afterCreatedAt == null
+                ? itemRepository.findFirstPage(page)
+                : itemRepository.findPageAfter(afterCreatedAt, afterId, page);
+    }
+
+    @Override
+    public void adjustQuantity(AdjustQtyRequest request, StreamObserver<ItemResponse> responseObserver) {
+        try {
+            Item saved = itemService.adjustQuantity(request.getId(), request.getDelta());
+            responseObserver.onNext(itemProtoMapper.toResponse(saved));
             responseObserver.onCompleted();
         } catch (IllegalArgumentException ex) {
             responseObserver.onError(Status.NOT_FOUND.withDescription(ex.getMessage()).asRuntimeException());
+        } catch (IllegalStateException ex) {
+            responseObserver.onError(Status.FAILED_PRECONDITION.withDescription(ex.getMessage()).asRuntimeException());
         } catch (Exception e) {
             log.error("adjustQuantity error", e);
             responseObserver.onError(Status.INTERNAL.withDescription("Error adjusting quantity").asRuntimeException());
         }
     }
 
-    private ItemResponse toResponse(Item it) {
-        Category cat;
+    @Override
+    public void adjustQuantities(AdjustQuantitiesRequest request, StreamObserver<AdjustQuantitiesResponse> responseObserver) {
         try {
-            cat = Category.valueOf(it.getCategory());
+            SortedMap<Long, Integer> deltas = new TreeMap<>();
+            for (AdjustQtyRequest adj : request.getAdjustmentsList()) {
+                deltas.merge(adj.getId(), adj.getDelta(), Math::addExact);
+            }
+            List<Item> newItems = new ArrayList<>(request.getNewItemsCount());
+            for (AddItemRequest add : request.getNewItemsList()) {
+                if (add.getCategory() == Category.CATEGORY_UNKNOWN || add.getDescription().isEmpty() || add.getQuantity() < 0) {
+                    throw new IllegalArgumentException("Invalid item data: " + add.getDescription());
+                }
+                newItems.add(Item.builder()
+                        .category(add.getCategory().name())
+                        .description(add.getDescription())
+                        .quantity(add.getQuantity())
+                        .deleted(false)
+                        .build());
+            }
+
+            String key = request.getIdempotencyKey().isEmpty() ? null : request.getIdempotencyKey();
+            if (key != null && key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new IllegalArgumentException("Idempotency key too long");
+            }
+
+            BulkAdjustmentResult result = itemService.adjustQuantities(deltas, newItems, request.getUpdatedBy(), key);
+            AdjustQuantitiesResponse.Builder response = AdjustQuantitiesResponse.newBuilder()
+                    .setSuccess(result.isApplied())
+                    .setReplayed(result.isReplayed())
+                    .setMessage(result.isReplayed() ? "Already applied" : result.isApplied() ? "Applied" : "No changes applied");
+            for (BulkAdjustmentResult.Line line : result.getLines()) {
+                response.addResults(AdjustResult.newBuilder()
+                        .setId(line.id())
+                        .setSuccess(line.success())
+                        .setMessage(line.message())
+                        .setQuantity(line.quantity()));
+            }
+            result.getAdded().forEach(it -> response.addAdded(itemProtoMapper.toResponse(it)));
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        } catch (IllegalArgumentException | ArithmeticException ex) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(ex.getMessage()).asRuntimeException());
         } catch (Exception e) {
-            cat = Category.CATEGORY_UNKNOWN;
+            log.error("adjustQuantities error", e);
+            responseObserver.onError(Status.INTERNAL.withDescription("Error adjusting quantities").asRuntimeException());
         }
-        Instant created = it.getCreatedAt() != null ? it.getCreatedAt() : Instant.now();
-        return ItemResponse.newBuilder()
-                .setId(it.getId() == null ? 0 : it.getId())
-                .setCategory(cat)
-                .setDescription(it.getDescription() == null ? "" : it.getDescription())
-                .setQuantity(it.getQuantity() == null ? 0 : it.getQuantity())
-                .setDeleted(Boolean.TRUE.equals(it.getDeleted()))
-                .setCreatedAt(Timestamp.newBuilder().setSeconds(created.getEpochSecond()).setNanos(created.getNano()).build())
-                .build();
     }
 }
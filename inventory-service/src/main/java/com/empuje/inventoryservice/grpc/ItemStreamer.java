@@ -0,0 +1,80 @@
+package com.empuje.inventoryservice.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streams items (or item changes) page by page, only pulling the next page when the
+ * transport can accept more messages. At most one page is held in memory per call.
+ */
+@Slf4j
+class ItemStreamer<T> implements Runnable {
+
+    @FunctionalInterface
+    interface PageSource<T> {
+        /** Returns the next page; an empty list marks the end of the stream. */
+        List<T> nextPage();
+
+        /** Pages through an already materialized list. */
+        static <T> PageSource<T> of(List<T> items, int pageSize) {
+            int[] offset = {0};
+            return () -> {
+                int from = offset[0];
+                int to = Math.min(items.size(), from + pageSize);
+                offset[0] = to;
+                return items.subList(from, to);
+            };
+        }
+    }
+
+    private final ServerCallStreamObserver<T> observer;
+    private final PageSource<T> source;
+
+    private Iterator<T> page = Collections.emptyIterator();
+    private boolean completed;
+    private volatile boolean cancelled;
+
+    ItemStreamer(ServerCallStreamObserver<T> observer, PageSource<T> source) {
+        this.observer = observer;
+        this.source = source;
+    }
+
+    /**
+     * Registers the flow-control callbacks. gRPC invokes the ready handler once the
+     * service method returns, and again every time the outbound buffer drains.
+     */
+    void start() {
+        observer.setOnCancelHandler(() -> cancelled = true);
+        observer.setOnReadyHandler(this);
+    }
+
+    @Override
+    public void run() {
+        if (completed || cancelled) {
+            return;
+        }
+        try {
+            while (observer.isReady() && !cancelled) {
+                if (!page.hasNext()) {
+                    List<T> next = source.nextPage();
+                    if (next.isEmpty()) {
+                        completed = true;
+                        observer.onCompleted();
+                        return;
+                    }
+                    page = next.iterator();
+                }
+                observer.onNext(page.next());
+            }
+        } catch (Exception e) {
+            completed = true;
+            log.error("item stream error", e);
+            observer.onError(Status.INTERNAL.withDescription("Error streaming items").asRuntimeException());
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.empuje.inventoryservice.grpc;
+
+import com.empuje.inventoryservice.grpc.gen.ItemChange;
+import com.empuje.inventoryservice.grpc.gen.ItemChangeType;
+import com.empuje.inventoryservice.grpc.gen.ItemResponse;
+import com.empuje.inventoryservice.service.ItemChangedEvent;
+import com.empuje.inventoryservice.util.ItemProtoMapper;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Fans committed item changes out to WatchItems subscribers. Each subscriber has its own
+ * bounded buffer; writers only ever offer to it, so a slow client can never hold up a
+ * write. When a buffer overflows it is discarded and the subscriber is sent RESYNC
+ * followed by a fresh snapshot.
+ *
+ * Live changes carry the row's change version as their sequence, the same number SyncItems
+ * reports, so it survives restarts and a client can tell a stale duplicate from a newer write.
+ */
+@Slf4j
+@Component
+public class ItemWatchHub {
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ExecutorService drainExecutor;
+    private final ItemProtoMapper itemProtoMapper;
+    private final int bufferSize;
+    private final Counter resyncs;
+
+    public ItemWatchHub(ItemProtoMapper itemProtoMapper,
+                        @Value("${inventory.watch.buffer-size:256}") int bufferSize,
+                        @Value("${inventory.watch.drain-threads:4}") int drainThreads,
+                        MeterRegistry meterRegistry) {
+        this.itemProtoMapper = itemProtoMapper;
+        this.bufferSize = bufferSize;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.drainExecutor = Executors.newFixedThreadPool(drainThreads, r -> {
+            Thread t = new Thread(r, "item-watch-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.resyncs = Counter.builder("inventory.watch.resyncs").register(meterRegistry);
+        Gauge.builder("inventory.watch.subscribers", subscriptions, Set::size).register(meterRegistry);
+    }
+
+    /**
+     * Starts streaming to {@code observer}: a snapshot from {@code snapshotSource}, then
+     * live changes. The subscription is registered before the snapshot is read, so no
+     * change committed in between can be missed (it may be seen twice, which is harmless
+     * since every change carries the full item).
+     */
+    void subscribe(ServerCallStreamObserver<ItemChange> observer, Supplier<ItemStreamer.PageSource<ItemResponse>> snapshotSource) {
+        Subscription subscription = new Subscription(observer, snapshotSource);
+        subscriptions.add(subscription);
+        observer.setOnCancelHandler(subscription::cancel);
+        observer.setOnReadyHandler(subscription::signal);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        ItemChange change = ItemChange.newBuilder()
+                .setType(toChangeType(event.type()))
+                .setItem(itemProtoMapper.toResponse(event.item()))
+                .setSequence(event.item().getChangeVersion())
+                .build();
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(change);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(Subscription::cancel);
+        drainExecutor.shutdownNow();
+    }
+
+    private static ItemChangeType toChangeType(ItemChangedEvent.ChangeType type) {
+        return switch (type) {
+            case ADDED -> ItemChangeType.ADDED;
+            case UPDATED -> ItemChangeType.UPDATED;
+            case DELETED -> ItemChangeType.DELETED;
+            case QUANTITY_CHANGED -> ItemChangeType.QUANTITY_CHANGED;
+        };
+    }
+
+    private final class Subscription {
+
+        private final ServerCallStreamObserver<ItemChange> observer;
+        private final Supplier<ItemStreamer.PageSource<ItemResponse>> snapshotSource;
+        private final ArrayBlockingQueue<ItemChange> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean resyncRequested = new AtomicBoolean();
+        private final AtomicInteger pendingSignals = new AtomicInteger();
+        private volatile boolean cancelled;
+
+        // Only touched by the drain loop, which never runs concurrently with itself.
+        private boolean snapshotPending = true;
+        private ItemStreamer.PageSource<ItemResponse> snapshot;
+        private Iterator<ItemResponse> snapshotPage = Collections.emptyIterator();
+
+        Subscription(ServerCallStreamObserver<ItemChange> observer, Supplier<ItemStreamer.PageSource<ItemResponse>> snapshotSource) {
+            this.observer = observer;
+            this.snapshotSource = snapshotSource;
+        }
+
+        void offer(ItemChange change) {
+            if (!buffer.offer(change)) {
+                buffer.clear();
+                resyncRequested.set(true);
+                resyncs.increment();
+            }
+            signal();
+        }
+
+        /** Schedules a drain unless one is already running; the running one will loop again. */
+        void signal() {
+            if (!cancelled && pendingSignals.getAndIncrement() == 0) {
+                drainExecutor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                try {
+                    drainOnce();
+                } catch (Exception e) {
+                    log.error("watchItems error", e);
+                    cancel();
+                    observer.onError(Status.INTERNAL.withDescription("Error watching items").asRuntimeException());
+                    return;
+                }
+                missed = pendingSignals.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drainOnce() {
+            while (!cancelled && observer.isReady()) {
+                if (resyncRequested.getAndSet(false)) {
+                    observer.onNext(ItemChange.newBuilder().setType(ItemChangeType.RESYNC).build());
+                    snapshotPending = true;
+                    continue;
+                }
+                if (snapshotPending) {
+                    snapshotPending = false;
+                    snapshot = snapshotSource.get();
+                    snapshotPage = Collections.emptyIterator();
+                }
+                if (snapshot != null) {
+                    if (!snapshotPage.hasNext()) {
+                        List<ItemResponse> page = snapshot.nextPage();
+                        if (page.isEmpty()) {
+                            snapshot = null;
+                            observer.onNext(ItemChange.newBuilder().setType(ItemChangeType.SNAPSHOT_END).build());
+                            continue;
+                        }
+                        snapshotPage = page.iterator();
+                    }
+                    observer.onNext(ItemChange.newBuilder().setType(ItemChangeType.SNAPSHOT).setItem(snapshotPage.next()).build());
+                    continue;
+                }
+                ItemChange change = buffer.poll();
+                if (change == null) {
+                    return;
+                }
+                observer.onNext(change);
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            subscriptions.remove(this);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.empuje.inventoryservice.grpc;
+
+import com.empuje.inventoryservice.grpc.gen.ItemResponse;
+import com.empuje.inventoryservice.model.Item;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/** Reads items in keyset order (created_at DESC, id DESC), remembering the last row seen. */
+class KeysetPageSource implements ItemStreamer.PageSource<ItemResponse> {
+
+    @FunctionalInterface
+    interface Query {
+        /** Returns up to {@code pageSize} items after the cursor; a null cursor means the first page. */
+        List<Item> fetch(Instant afterCreatedAt, Long afterId, int pageSize);
+    }
+
+    private final Query query;
+    private final Function<Item, ItemResponse> mapper;
+    private final int pageSize;
+
+    private Instant lastCreatedAt;
+    private Long lastId;
+    private boolean exhausted;
+
+    KeysetPageSource(Query query, Function<Item, ItemResponse> mapper, int pageSize, Instant afterCreatedAt, Long afterId) {
+        this.query = query;
+        this.mapper = mapper;
+        this.pageSize = pageSize;
+        this.lastCreatedAt = afterCreatedAt;
+        this.lastId = afterId;
+    }
+
+    /** A source that reads on from where this one stopped, with a different page size. */
+    KeysetPageSource continuing(int pageSize) {
+        KeysetPageSource rest = new KeysetPageSource(query, mapper, pageSize, lastCreatedAt, lastId);
+        rest.exhausted = exhausted;
+        return rest;
+    }
+
+    @Override
+    public List<ItemResponse> nextPage() {
+        if (exhausted) {
+            return List.of();
+        }
+        List<Item> items = query.fetch(lastCreatedAt, lastId, pageSize);
+        if (items.size() < pageSize) {
+            exhausted = true;
+        }
+        if (!items.isEmpty()) {
+            Item last = items.get(items.size() - 1);
+            lastCreatedAt = last.getCreatedAt();
+            lastId = last.getId();
+        }
+        List<ItemResponse> page = new ArrayList<>(items.size());
+        for (Item it : items) {
+            page.add(mapper.apply(it));
+        }
+        return page;
+    }
+}
@@ -8,12 +8,14 @@ import java.time.Instant;
 @Table(name = "inventory_items")
 @Getter
 @Setter
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "inventory_item_ids")
+    @TableGenerator(name = "inventory_item_ids", table = "id_generators", pkColumnName = "gen_name",
+            valueColumnName = "gen_value", pkColumnValue = "inventory_items", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 32)
@@ -34,6 +36,10 @@ public class Item {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
+    /** Position of the last write to this row in the inventory change log; see ChangeVersions. */
+    @Column(name = "change_version", nullable = false)
+    private Long changeVersion;
+
     @PrePersist
     public void onCreate() {
         this.createdAt = Instant.now();
@@ -0,0 +1,17 @@
+package com.empuje.inventoryservice.repository;
+
+import java.time.Instant;
+
+/**
+ * Optional predicates for listing items; null fields match everything.
+ */
+public record ItemFilter(String category, Integer minQuantity, Integer maxQuantity,
+                         String descriptionPrefix, Instant updatedSince) {
+
+    public static final ItemFilter NONE = new ItemFilter(null, null, null, null, null);
+
+    public boolean isEmpty() {
+        return category == null && minQuantity == null && maxQuantity == null
+                && descriptionPrefix == null && updatedSince == null;
+    }
+}
@@ -1,12 +1,78 @@
 package com.empuje.inventoryservice.repository;
 
 import com.empuje.inventoryservice.model.Item;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
-    List<Item> findByDeletedFalseOrderByCreatedAtDesc();
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
+
+    @Query("SELECT i FROM Item i WHERE i.deleted = false ORDER BY i.createdAt DESC, i.id DESC")
+    List<Item> findFirstPage(Pageable pageable);
+
+    @Query("SELECT i FROM Item i WHERE i.deleted = false " +
+           "AND (i.createdAt < :createdAt OR (i.createdAt = :createdAt AND i.id < :id)) " +
+           "ORDER BY i.createdAt DESC, i.id DESC")
+    List<Item> findPageAfter(@Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Adds {@code delta} in the database, refusing to go below zero. Returns the number
+     * of rows touched: 0 means the item does not exist or the stock would go negative.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.quantity = i.quantity + :delta, i.updatedAt = :now " +
+           "WHERE i.id = :id AND i.quantity + :delta >= 0")
+    int adjustQuantity(@Param("id") Long id, @Param("delta") int delta, @Param("now") Instant now);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.deleted = true, i.updatedAt = :now " +
+           "WHERE i.id = :id AND i.deleted = false")
+    int markDeleted(@Param("id") Long id, @Param("now") Instant now);
+
+    /** Stamps a row already written (and locked) by the current transaction with its change version. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.changeVersion = :version WHERE i.id = :id")
+    int stampChangeVersion(@Param("id") Long id, @Param("version") long version);
+
+    /** Rows written in {@code (after, upTo]}, tombstones included, in version order. */
+    @Query("SELECT i FROM Item i WHERE i.changeVersion > :after AND i.changeVersion <= :upTo ORDER BY i.changeVersion")
+    List<Item> findChanged(@Param("after") long after, @Param("upTo") long upTo, Pageable pageable);
+
+    /** Like {@link #findChanged} without tombstones; used to seed an empty client copy. */
+    @Query("SELECT i FROM Item i WHERE i.deleted = false AND i.changeVersion > :after AND i.changeVersion <= :upTo " +
+           "ORDER BY i.changeVersion")
+    List<Item> findLiveChanged(@Param("after") long after, @Param("upTo") long upTo, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id = :id")
+    Optional<Item> findByIdForUpdate(@Param("id") Long id);
+
+    /** Locks the given rows in ascending id order, so concurrent bulk adjustments cannot deadlock. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Item i WHERE i.id IN :ids ORDER BY i.id")
+    List<Item> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    /** Live items and units per category; used to seed the in-memory aggregates at startup. */
+    @Query("SELECT i.category AS category, COUNT(i) AS itemCount, COALESCE(SUM(i.quantity), 0) AS units " +
+           "FROM Item i WHERE i.deleted = false GROUP BY i.category")
+    List<CategoryTotals> sumByCategory();
+
+    interface CategoryTotals {
+        String getCategory();
+
+        long getItemCount();
+
+        long getUnits();
+    }
 }
@@ -0,0 +1,16 @@
+package com.empuje.inventoryservice.repository;
+
+import com.empuje.inventoryservice.model.Item;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * Returns up to {@code limit} live items matching {@code filter}, in keyset order
+     * (created_at DESC, id DESC) after the given cursor; a null cursor means the first page.
+     * Only the predicates that are set end up in the SQL.
+     */
+    List<Item> findPage(ItemFilter filter, Instant afterCreatedAt, Long afterId, int limit);
+}
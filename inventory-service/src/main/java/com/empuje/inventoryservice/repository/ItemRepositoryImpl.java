@@ -0,0 +1,77 @@
+package com.empuje.inventoryservice.repository;
+
+import com.empuje.inventoryservice.model.Item;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the filtered listing query from whichever predicates are present, so each
+ * combination gets a plain WHERE clause MySQL can match against the V4 indexes instead
+ * of a catch-all "(:param IS NULL OR ...)" query that defeats them.
+ */
+class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Item> findPage(ItemFilter filter, Instant afterCreatedAt, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Item> query = cb.createQuery(Item.class);
+        Root<Item> item = query.from(Item.class);
+
+        List<Predicate> where = new ArrayList<>();
+        where.add(cb.isFalse(item.get("deleted")));
+        if (filter.category() != null) {
+            where.add(cb.equal(item.get("category"), filter.category()));
+        }
+        if (filter.minQuantity() != null) {
+            where.add(cb.greaterThanOrEqualTo(item.get("quantity"), filter.minQuantity()));
+        }
+        if (filter.maxQuantity() != null) {
+            where.add(cb.lessThanOrEqualTo(item.get("quantity"), filter.maxQuantity()));
+        }
+        if (filter.descriptionPrefix() != null) {
+            where.add(cb.like(item.get("description"), escapeLike(filter.descriptionPrefix()) + "%", LIKE_ESCAPE));
+        }
+        if (filter.updatedSince() != null) {
+            // updated_at is only set once a row has been modified
+            where.add(cb.or(
+                    cb.greaterThanOrEqualTo(item.get("updatedAt"), filter.updatedSince()),
+                    cb.and(cb.isNull(item.get("updatedAt")),
+                            cb.greaterThanOrEqualTo(item.get("createdAt"), filter.updatedSince()))));
+        }
+        if (afterCreatedAt != null) {
+            where.add(cb.or(
+                    cb.lessThan(item.get("createdAt"), afterCreatedAt),
+                    cb.and(cb.equal(item.get("createdAt"), afterCreatedAt), cb.lessThan(item.get("id"), afterId))));
+        }
+
+        query.select(item)
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(cb.desc(item.get("createdAt")), cb.desc(item.get("id")));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 4);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                sb.append(LIKE_ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,30 @@
+package com.empuje.inventoryservice.service;
+
+import com.empuje.inventoryservice.model.Item;
+import lombok.Getter;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BulkAdjustmentResult {
+
+    private final boolean applied;
+    private final List<Line> lines;
+    private final List<Item> added;
+    /** The request's idempotency key had already been applied; nothing was changed. */
+    private final boolean replayed;
+
+    public BulkAdjustmentResult(boolean applied, List<Line> lines, List<Item> added) {
+        this(applied, lines, added, false);
+    }
+
+    public static BulkAdjustmentResult replayed() {
+        return new BulkAdjustmentResult(true, List.of(), List.of(), true);
+    }
+
+    /** Outcome for one item id; {@code quantity} is the resulting (or would-be) quantity. */
+    public record Line(long id, boolean success, String message, int quantity) {
+    }
+}
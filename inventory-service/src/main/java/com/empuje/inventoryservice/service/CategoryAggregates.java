@@ -0,0 +1,82 @@
+package com.empuje.inventoryservice.service;
+
+import com.empuje.inventoryservice.model.Item;
+import com.empuje.inventoryservice.repository.ItemRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-category item and unit counters over non-deleted items. Seeded from the table
+ * once at startup (before the gRPC server accepts calls) and then kept current from
+ * committed {@link ItemChangedEvent}s, so reading them never touches the database.
+ * The counters are local to this instance.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CategoryAggregates {
+
+    private final ItemRepository itemRepository;
+    private final Map<String, Totals> totals = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        totals.clear();
+        for (ItemRepository.CategoryTotals row : itemRepository.sumByCategory()) {
+            Totals t = totalsFor(row.getCategory());
+            t.items.add(row.getItemCount());
+            t.units.add(row.getUnits());
+        }
+        log.info("Category aggregates rebuilt for {} categories", totals.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onItemChanged(ItemChangedEvent event) {
+        Item previous = event.previous();
+        if (previous != null && !Boolean.TRUE.equals(previous.getDeleted())) {
+            Totals t = totalsFor(previous.getCategory());
+            t.items.decrement();
+            t.units.add(-quantityOf(previous));
+        }
+        Item current = event.item();
+        if (!Boolean.TRUE.equals(current.getDeleted())) {
+            Totals t = totalsFor(current.getCategory());
+            t.items.increment();
+            t.units.add(quantityOf(current));
+        }
+    }
+
+    /** Current counters, one entry per category that has ever held an item, ordered by name. */
+    public List<CategoryTotal> snapshot() {
+        List<CategoryTotal> copy = new ArrayList<>(totals.size());
+        totals.forEach((category, t) -> copy.add(new CategoryTotal(category, t.items.sum(), t.units.sum())));
+        copy.sort(Comparator.comparing(CategoryTotal::category));
+        return copy;
+    }
+
+    public record CategoryTotal(String category, long items, long units) {
+    }
+
+    private Totals totalsFor(String category) {
+        return totals.computeIfAbsent(category, c -> new Totals());
+    }
+
+    private static long quantityOf(Item it) {
+        return it.getQuantity() == null ? 0 : it.getQuantity();
+    }
+
+    private static final class Totals {
+        final LongAdder items = new LongAdder();
+        final LongAdder units = new LongAdder();
+    }
+}
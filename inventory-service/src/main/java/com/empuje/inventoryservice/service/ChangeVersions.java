@@ -0,0 +1,119 @@
+package com.empuje.inventoryservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.TreeSet;
+
+/**
+ * The inventory change log counter. Versions are handed out from blocks taken off the
+ * inventory_versions row in their own short transaction (the same pooled scheme as
+ * id_generators), so writers never hold that row: they only wait on the item rows they
+ * touch. Versions can therefore commit out of order, and {@link #horizon()} reports the
+ * highest version below which nothing is still in flight, so a reader that sees version N
+ * as current can rely on every row at or below N being committed.
+ *
+ * The in-flight set is kept in memory, which is exact because this service is the only
+ * writer of inventory_items and runs as a single instance. Versions of a block that is
+ * not used up before a restart are skipped; SyncItems only needs them to increase.
+ */
+@Component
+public class ChangeVersions {
+
+    private static final String ITEMS = "inventory_items";
+    private static final String PURGED = "inventory_items_purged";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate blockTransaction;
+    private final int blockSize;
+
+    /** Guards the current block and the in-flight ranges. */
+    private final Object monitor = new Object();
+    private long next;
+    private long blockEnd = -1;
+    /** First version of each reserved range whose transaction has not completed yet. */
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+
+    public ChangeVersions(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${inventory.sync.version-block-size:1000}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.blockTransaction = new TransactionTemplate(transactionManager);
+        this.blockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Reserves {@code count} consecutive versions and returns the first. Must run inside the
+     * writing transaction, after the rows being written are locked: the versions count as in
+     * flight, holding back {@link #horizon()}, until that transaction completes.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long reserve(int count) {
+        long first;
+        synchronized (monitor) {
+            if (next + count - 1 > blockEnd) {
+                allocateBlock(Math.max(count, blockSize));
+            }
+            first = next;
+            next += count;
+            inFlight.add(first);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(first);
+            }
+        });
+        return first;
+    }
+
+    /** The highest version with nothing in flight at or below it, and the purge horizon. */
+    public Horizon horizon() {
+        long[] values = new long[2];
+        jdbcTemplate.query("SELECT name, version FROM inventory_versions WHERE name IN (?, ?)", rs -> {
+            values[ITEMS.equals(rs.getString(1)) ? 0 : 1] = rs.getLong(2);
+        }, ITEMS, PURGED);
+        synchronized (monitor) {
+            // before the first block every version in the table was written by a finished process
+            long current = blockEnd < 0 ? values[0] : inFlight.isEmpty() ? next - 1 : inFlight.first() - 1;
+            return new Horizon(current, values[1]);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void advancePurgedThrough(long version) {
+        jdbcTemplate.update("UPDATE inventory_versions SET version = GREATEST(version, ?) WHERE name = ?", version, PURGED);
+    }
+
+    /** Called with the monitor held; commits on its own, so the row lock lasts one statement. */
+    private void allocateBlock(int size) {
+        Long last = blockTransaction.execute(status -> {
+            jdbcTemplate.update("UPDATE inventory_versions SET version = LAST_INSERT_ID(version + ?) WHERE name = ?", size, ITEMS);
+            return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        });
+        next = last - size + 1;
+        blockEnd = last;
+    }
+
+    private void complete(long first) {
+        synchronized (monitor) {
+            inFlight.remove(first);
+        }
+    }
+
+    /**
+     * @param current       highest version with every write at or below it committed
+     * @param purgedThrough highest version of a purged tombstone; syncing from below it may miss deletes
+     */
+    public record Horizon(long current, long purgedThrough) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.empuje.inventoryservice.service;
+
+import com.empuje.inventoryservice.model.Item;
+
+/**
+ * Published by {@link ItemService} inside the write transaction. Listeners that keep
+ * derived state should use {@code @TransactionalEventListener} so they only see
+ * committed changes. {@code previous} is the row as it was before the write, or null
+ * for {@link ChangeType#ADDED}.
+ */
+public record ItemChangedEvent(ChangeType type, Item item, Item previous) {
+
+    public enum ChangeType {
+        ADDED,
+        UPDATED,
+        DELETED,
+        QUANTITY_CHANGED
+    }
+}
@@ -0,0 +1,197 @@
+package com.empuje.inventoryservice.service;
+
+import com.empuje.inventoryservice.cache.ItemCache;
+import com.empuje.inventoryservice.model.Item;
+import com.empuje.inventoryservice.repository.ItemRepository;
+import com.empuje.inventoryservice.service.ItemChangedEvent.ChangeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Every write to inventory_items goes through here, so each one is stamped with a
+ * change version (see {@link ChangeVersions}) and publishes an {@link ItemChangedEvent}
+ * that caches and other derived state can follow.
+ */
+@Service
+@RequiredArgsConstructor
+public class ItemService {
+
+    private static final String BULK_ADJUST_SQL =
+            "UPDATE inventory_items SET quantity = quantity + ?, updated_at = ?, updated_by = ?, change_version = ? WHERE id = ?";
+    private static final String KEY_EXISTS_SQL =
+            "SELECT COUNT(*) FROM inventory_adjustment_keys WHERE idempotency_key = ?";
+    private static final String CLAIM_KEY_SQL =
+            "INSERT IGNORE INTO inventory_adjustment_keys (idempotency_key, created_at) VALUES (?, ?)";
+
+    private final ItemRepository itemRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ItemCache itemCache;
+    private final ChangeVersions changeVersions;
+    private final ApplicationEventPublisher events;
+
+    @Transactional
+    public Item addItem(Item item) {
+        item.setChangeVersion(changeVersions.reserve(1));
+        Item saved = itemRepository.save(item);
+        events.publishEvent(new ItemChangedEvent(ChangeType.ADDED, saved, null));
+        return saved;
+    }
+
+    /**
+     * Updates the non-null fields. The row is read with a write lock so a concurrent
+     * adjustment cannot be overwritten by a stale quantity.
+     *
+     * @throws IllegalArgumentException if the item does not exist
+     */
+    @Transactional
+    public Item updateItem(long id, String description, Integer quantity) {
+        Item it = itemRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new IllegalArgumentException("Item not found"));
+        Item previous = it.toBuilder().build();
+        if (description != null) it.setDescription(description);
+        if (quantity != null) it.setQuantity(quantity);
+        it.setChangeVersion(changeVersions.reserve(1));
+        Item saved = itemRepository.save(it);
+        events.publishEvent(new ItemChangedEvent(ChangeType.UPDATED, saved, previous));
+        return saved;
+    }
+
+    /**
+     * Soft-deletes the item with one conditional UPDATE; only a refused delete needs a
+     * lookup, which the cache usually answers. The change version is reserved once the
+     * UPDATE holds the row lock.
+     *
+     * @throws IllegalArgumentException if the item does not exist
+     * @throws IllegalStateException    if the item was already deleted
+     */
+    @Transactional
+    public Item deleteItem(long id) {
+        int updated = itemRepository.markDeleted(id, Instant.now());
+        if (updated == 0) {
+            if (itemCache.get(id, itemRepository::findById).isEmpty()) {
+                throw new IllegalArgumentException("Item not found");
+            }
+            throw new IllegalStateException("Already deleted");
+        }
+        itemRepository.stampChangeVersion(id, changeVersions.reserve(1));
+        Item deleted = itemRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Item not found"));
+        events.publishEvent(new ItemChangedEvent(ChangeType.DELETED, deleted, deleted.toBuilder().deleted(false).build()));
+        return deleted;
+    }
+
+    /**
+     * Applies {@code delta} with one conditional UPDATE, so concurrent adjustments of the
+     * same item queue on the row lock instead of overwriting each other. The change version
+     * is stamped and the row read back in the same transaction, while the lock is still held.
+     *
+     * @throws IllegalArgumentException if the item does not exist
+     * @throws IllegalStateException    if the adjustment would leave a negative quantity
+     */
+    @Transactional
+    public Item adjustQuantity(long id, int delta) {
+        int updated = itemRepository.adjustQuantity(id, delta, Instant.now());
+        if (updated == 0) {
+            if (itemCache.get(id, itemRepository::findById).isEmpty()) {
+                throw new IllegalArgumentException("Item not found");
+            }
+            throw new IllegalStateException("Quantity cannot be negative");
+        }
+        itemRepository.stampChangeVersion(id, changeVersions.reserve(1));
+        Item saved = itemRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Item not found"));
+        Item previous = saved.toBuilder().quantity(saved.getQuantity() - delta).build();
+        events.publishEvent(new ItemChangedEvent(ChangeType.QUANTITY_CHANGED, saved, previous));
+        return saved;
+    }
+
+    /**
+     * Applies all {@code deltas} and inserts all {@code newItems} in one transaction, or
+     * nothing at all if any adjustment is invalid. Rows are locked in ascending id order
+     * (the map is sorted) before anything is written, so two bulk requests touching the
+     * same items wait for each other instead of deadlocking. Updates go out as a single
+     * JDBC batch; inserts are batched by Hibernate thanks to table-based id allocation.
+     *
+     * A non-null {@code idempotencyKey} is claimed in the same transaction as the writes;
+     * if it was already claimed the request is reported as replayed and nothing changes.
+     */
+    @Transactional
+    public BulkAdjustmentResult adjustQuantities(SortedMap<Long, Integer> deltas, List<Item> newItems, long updatedBy,
+                                                 String idempotencyKey) {
+        if (idempotencyKey != null && keyClaimed(idempotencyKey)) {
+            return BulkAdjustmentResult.replayed();
+        }
+        Map<Long, Item> locked = deltas.isEmpty() ? Map.of()
+                : itemRepository.findAllByIdForUpdate(deltas.keySet()).stream()
+                        .collect(Collectors.toMap(Item::getId, Function.identity()));
+
+        List<BulkAdjustmentResult.Line> lines = new ArrayList<>(deltas.size());
+        boolean valid = true;
+        for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+            Item it = locked.get(entry.getKey());
+            if (it == null) {
+                lines.add(new BulkAdjustmentResult.Line(entry.getKey(), false, "Item not found", 0));
+                valid = false;
+                continue;
+            }
+            int newQty = it.getQuantity() + entry.getValue();
+            if (newQty < 0) {
+                lines.add(new BulkAdjustmentResult.Line(entry.getKey(), false, "Quantity cannot be negative", newQty));
+                valid = false;
+                continue;
+            }
+            lines.add(new BulkAdjustmentResult.Line(entry.getKey(), true, "OK", newQty));
+        }
+        if (!valid) {
+            return new BulkAdjustmentResult(false, lines, List.of());
+        }
+
+        if (deltas.isEmpty() && newItems.isEmpty()) {
+            return new BulkAdjustmentResult(true, lines, List.of());
+        }
+        // claimed after the item rows are locked: a concurrent retry waited on them and now finds the key
+        if (idempotencyKey != null
+                && jdbcTemplate.update(CLAIM_KEY_SQL, idempotencyKey, Timestamp.from(Instant.now())) == 0) {
+            return BulkAdjustmentResult.replayed();
+        }
+        // adjusted rows take versions in id order, new items the ones after them
+        long version = changeVersions.reserve(deltas.size() + newItems.size());
+        if (!deltas.isEmpty()) {
+            Instant now = Instant.now();
+            List<Object[]> args = new ArrayList<>(deltas.size());
+            long first = version;
+            for (Map.Entry<Long, Integer> entry : deltas.entrySet()) {
+                args.add(new Object[]{entry.getValue(), Timestamp.from(now), updatedBy, version++, entry.getKey()});
+            }
+            jdbcTemplate.batchUpdate(BULK_ADJUST_SQL, args);
+            for (BulkAdjustmentResult.Line line : lines) {
+                Item before = locked.get(line.id());
+                Item after = before.toBuilder().quantity(line.quantity()).updatedAt(now).changeVersion(first++).build();
+                events.publishEvent(new ItemChangedEvent(ChangeType.QUANTITY_CHANGED, after, before.toBuilder().build()));
+            }
+        }
+        for (Item it : newItems) {
+            it.setChangeVersion(version++);
+        }
+        List<Item> added = newItems.isEmpty() ? List.of() : itemRepository.saveAll(newItems);
+        added.forEach(it -> events.publishEvent(new ItemChangedEvent(ChangeType.ADDED, it, null)));
+        return new BulkAdjustmentResult(true, lines, added);
+    }
+
+    private boolean keyClaimed(String idempotencyKey) {
+        Integer count = jdbcTemplate.queryForObject(KEY_EXISTS_SQL, Integer.class, idempotencyKey);
+        return count != null && count > 0;
+    }
+}
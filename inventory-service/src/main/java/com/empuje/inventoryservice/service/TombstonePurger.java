@@ -0,0 +1,83 @@
+package com.empuje.inventoryservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hard-deletes soft-deleted items once they are older than the retention window, in small
+ * batches so no transaction holds many row locks. Each batch raises the purge horizon in
+ * the same transaction, so SyncItems knows which clients may have missed a delete.
+ * AdjustQuantities idempotency keys are dropped after the same retention.
+ */
+@Slf4j
+@Component
+public class TombstonePurger {
+
+    private static final String SELECT_EXPIRED =
+            "SELECT id, change_version FROM inventory_items WHERE deleted = true AND updated_at < ? " +
+            "ORDER BY change_version LIMIT ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeVersions changeVersions;
+    private final Duration retention;
+    private final int batchSize;
+
+    public TombstonePurger(JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           ChangeVersions changeVersions,
+                           @Value("${inventory.sync.tombstone-retention-days:30}") int retentionDays,
+                           @Value("${inventory.sync.purge-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.changeVersions = changeVersions;
+        this.retention = Duration.ofDays(retentionDays);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.sync.purge-interval-ms:3600000}",
+               initialDelayString = "${inventory.sync.purge-interval-ms:3600000}")
+    public void purge() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(retention));
+        int total = 0;
+        int purged;
+        do {
+            purged = transactionTemplate.execute(status -> purgeBatch(cutoff));
+            total += purged;
+        } while (purged == batchSize);
+        if (total > 0) {
+            log.info("Purged {} item tombstones older than {}", total, cutoff.toInstant());
+        }
+        int keys = jdbcTemplate.update("DELETE FROM inventory_adjustment_keys WHERE created_at < ?", cutoff);
+        if (keys > 0) {
+            log.info("Purged {} adjustment idempotency keys older than {}", keys, cutoff.toInstant());
+        }
+    }
+
+    private int purgeBatch(Timestamp cutoff) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_EXPIRED, cutoff, batchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        long maxVersion = 0;
+        Object[][] ids = new Object[rows.size()][];
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, Object> row = rows.get(i);
+            ids[i] = new Object[]{row.get("id")};
+            maxVersion = Math.max(maxVersion, ((Number) row.get("change_version")).longValue());
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM inventory_items WHERE id = ? AND deleted = true", List.of(ids));
+        changeVersions.advancePurgedThrough(maxVersion);
+        return rows.size();
+    }
+}
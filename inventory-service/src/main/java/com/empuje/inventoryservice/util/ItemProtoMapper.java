@@ -0,0 +1,83 @@
+package com.empuje.inventoryservice.util;
+
+import com.empuje.inventoryservice.grpc.gen.Category;
+import com.empuje.inventoryservice.grpc.gen.ItemResponse;
+import com.empuje.inventoryservice.model.Item;
+import com.google.protobuf.Timestamp;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts inventory entities to their Protobuf representation.
+ */
+@Component
+public class ItemProtoMapper {
+
+    /** Category names resolved once, so unknown values don't pay for an exception. */
+    private static final Map<String, Category> CATEGORIES = new HashMap<>();
+
+    static {
+        for (Category c : Category.values()) {
+            if (c != Category.UNRECOGNIZED) {
+                CATEGORIES.put(c.name(), c);
+            }
+        }
+    }
+
+    public ItemResponse toResponse(Item it) {
+        return fill(ItemResponse.newBuilder(), it, toTimestamp(it.getCreatedAt())).build();
+    }
+
+    public Category toCategory(String name) {
+        return name == null ? Category.CATEGORY_UNKNOWN : CATEGORIES.getOrDefault(name, Category.CATEGORY_UNKNOWN);
+    }
+
+    /** A mapper for one stream; not thread-safe. */
+    public Session newSession() {
+        return new Session();
+    }
+
+    /**
+     * Reuses one builder across rows and the last created_at Timestamp when consecutive
+     * rows share it, which is common in created_at order and after bulk inserts.
+     */
+    public final class Session {
+
+        private final ItemResponse.Builder builder = ItemResponse.newBuilder();
+        private Instant lastCreatedAt;
+        private Timestamp lastTimestamp;
+
+        private Session() {
+        }
+
+        public ItemResponse toResponse(Item it) {
+            Instant created = it.getCreatedAt();
+            if (created == null || !created.equals(lastCreatedAt)) {
+                lastCreatedAt = created;
+                lastTimestamp = toTimestamp(created);
+            }
+            return fill(builder.clear(), it, lastTimestamp).build();
+        }
+    }
+
+    private ItemResponse.Builder fill(ItemResponse.Builder builder, Item it, Timestamp created) {
+        return builder
+                .setId(it.getId() == null ? 0 : it.getId())
+                .setCategory(toCategory(it.getCategory()))
+                .setDescription(it.getDescription() == null ? "" : it.getDescription())
+                .setQuantity(it.getQuantity() == null ? 0 : it.getQuantity())
+                .setDeleted(Boolean.TRUE.equals(it.getDeleted()))
+                .setCreatedAt(created);
+    }
+
+    /** Rows without created_at map to the epoch rather than to a misleading "now". */
+    private static Timestamp toTimestamp(Instant instant) {
+        if (instant == null) {
+            return Timestamp.getDefaultInstance();
+        }
+        return Timestamp.newBuilder().setSeconds(instant.getEpochSecond()).setNanos(instant.getNano()).build();
+    }
+}
@@ -0,0 +1,2 @@
+-- Supports keyset pagination of ListItems: WHERE deleted = false ORDER BY created_at DESC, id DESC
+CREATE INDEX idx_inventory_deleted_created_id ON inventory_items (deleted, created_at, id);
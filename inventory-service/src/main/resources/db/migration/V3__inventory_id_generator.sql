@@ -0,0 +1,11 @@
+-- Table-based id allocation for inventory_items, so Hibernate can batch inserts
+-- (IDENTITY forces one INSERT round-trip per row to learn the generated key).
+CREATE TABLE IF NOT EXISTS id_generators (
+  gen_name VARCHAR(64) NOT NULL PRIMARY KEY,
+  gen_value BIGINT NOT NULL
+) ENGINE=InnoDB;
+
+-- The pooled optimizer hands out (gen_value - 49 .. gen_value), with allocationSize = 50,
+-- so seed the hi value one block above the ids already in use.
+INSERT INTO id_generators (gen_name, gen_value)
+SELECT 'inventory_items', COALESCE(MAX(id), 0) + 50 FROM inventory_items;
@@ -0,0 +1,14 @@
+-- Supports filtered ListItems (see ItemRepositoryImpl). Every variant filters on deleted = false
+-- and orders by created_at DESC, id DESC.
+
+-- category = ? ORDER BY created_at, id: equality prefix, then the keyset columns
+CREATE INDEX idx_inventory_deleted_category_created_id ON inventory_items (deleted, category, created_at, id);
+
+-- quantity BETWEEN ? AND ? (low-stock queries)
+CREATE INDEX idx_inventory_deleted_quantity ON inventory_items (deleted, quantity);
+
+-- description LIKE 'prefix%'
+CREATE INDEX idx_inventory_deleted_description ON inventory_items (deleted, description);
+
+-- updated_at >= ? OR (updated_at IS NULL AND created_at >= ?): both branches are ranges on this index
+CREATE INDEX idx_inventory_deleted_updated_created ON inventory_items (deleted, updated_at, created_at);
@@ -0,0 +1,21 @@
+-- Delta sync (SyncItems): every write stamps the row with the next value of a global counter,
+-- and soft-deleted rows stay around as tombstones until the retention job purges them.
+ALTER TABLE inventory_items ADD COLUMN change_version BIGINT NOT NULL DEFAULT 0;
+
+-- Existing rows get distinct versions; ids are unique and below anything handed out from now on.
+UPDATE inventory_items SET change_version = id;
+
+CREATE INDEX idx_inventory_change_version ON inventory_items (change_version);
+
+-- 'inventory_items': last version handed out (advanced with LAST_INSERT_ID(version + n)).
+-- 'inventory_items_purged': highest version of a purged tombstone; clients that last synced
+-- below it may have missed a delete and must resync from scratch.
+CREATE TABLE IF NOT EXISTS inventory_versions (
+  name VARCHAR(64) NOT NULL PRIMARY KEY,
+  version BIGINT NOT NULL
+) ENGINE=InnoDB;
+
+INSERT INTO inventory_versions (name, version)
+SELECT 'inventory_items', COALESCE(MAX(change_version), 0) FROM inventory_items;
+
+INSERT INTO inventory_versions (name, version) VALUES ('inventory_items_purged', 0);
@@ -0,0 +1,8 @@
+-- Idempotency keys of applied AdjustQuantities requests: a retried request with the same key
+-- is answered without applying it again. TombstonePurger drops keys after the tombstone retention.
+CREATE TABLE IF NOT EXISTS inventory_adjustment_keys (
+  idempotency_key VARCHAR(128) NOT NULL PRIMARY KEY,
+  created_at TIMESTAMP NOT NULL
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_inventory_adjustment_keys_created ON inventory_adjustment_keys (created_at);
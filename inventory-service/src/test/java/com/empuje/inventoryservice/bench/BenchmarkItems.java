@@ -0,0 +1,44 @@
+package com.empuje.inventoryservice.bench;
+
+import com.empuje.inventoryservice.model.Item;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Synthetic inventory rows in ListItems order (created_at DESC, id DESC). */
+public final class BenchmarkItems {
+
+    private static final String[] CATEGORIES = {"ROPA", "ALIMENTOS", "JUGUETES", "UTILES_ESCOLARES"};
+
+    private BenchmarkItems() {
+    }
+
+    /**
+     * Rows are created in bursts of up to 20 sharing a created_at second, as bulk
+     * registrations produce.
+     */
+    public static List<Item> generate(int size, double unknownCategoryRatio) {
+        Random random = new Random(42);
+        List<Item> items = new ArrayList<>(size);
+        Instant created = Instant.parse("2025-01-01T00:00:00Z").plusSeconds(size);
+        for (int i = 0; i < size; i++) {
+            if (random.nextInt(20) == 0) {
+                created = created.minusSeconds(1 + random.nextInt(60));
+            }
+            String category = random.nextDouble() < unknownCategoryRatio
+                    ? "LEGACY_" + random.nextInt(3)
+                    : CATEGORIES[random.nextInt(CATEGORIES.length)];
+            items.add(Item.builder()
+                    .id((long) (size - i))
+                    .category(category)
+                    .description("Item " + i)
+                    .quantity(random.nextInt(500))
+                    .deleted(false)
+                    .createdAt(created)
+                    .build());
+        }
+        return items;
+    }
+}
@@ -0,0 +1,96 @@
+package com.empuje.inventoryservice.bench;
+
+import com.empuje.inventoryservice.grpc.gen.*;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hammers a single item with AdjustQuantity calls from many threads against a running
+ * inventory-service and checks that no update was lost.
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.empuje.inventoryservice.bench.HotItemContentionBenchmark \
+ *     -Dexec.args="localhost:50052 32 500"
+ * </pre>
+ *
+ * Arguments: target, threads, adjustments per thread.
+ */
+public class HotItemContentionBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "localhost:50052";
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int perThread = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        ManagedChannel channel = ManagedChannelBuilder.forTarget(target).usePlaintext().build();
+        try {
+            InventoryServiceGrpc.InventoryServiceBlockingStub stub = InventoryServiceGrpc.newBlockingStub(channel);
+            ItemResponse item = stub.addItem(AddItemRequest.newBuilder()
+                    .setCategory(Category.ALIMENTOS)
+                    .setDescription("Arroz (benchmark " + System.currentTimeMillis() + ")")
+                    .setQuantity(0)
+                    .build());
+
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            CountDownLatch done = new CountDownLatch(threads);
+            AtomicLong failures = new AtomicLong();
+            long[][] latencies = new long[threads][perThread];
+
+            for (int t = 0; t < threads; t++) {
+                int worker = t;
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < perThread; i++) {
+                            long begin = System.nanoTime();
+                            try {
+                                stub.adjustQuantity(AdjustQtyRequest.newBuilder().setId(item.getId()).setDelta(1).build());
+                            } catch (RuntimeException e) {
+                                failures.incrementAndGet();
+                            }
+                            latencies[worker][i] = System.nanoTime() - begin;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            done.await();
+            long elapsed = System.nanoTime() - begin;
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+
+            long total = (long) threads * perThread;
+            long expected = total - failures.get();
+            int actual = stub.adjustQuantity(AdjustQtyRequest.newBuilder().setId(item.getId()).setDelta(0).build()).getQuantity();
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+
+            System.out.printf("threads=%d calls=%d failures=%d elapsed=%.2fs throughput=%.0f ops/s%n",
+                    threads, total, failures.get(), elapsed / 1e9, total / (elapsed / 1e9));
+            System.out.printf("latency p50=%.2fms p99=%.2fms max=%.2fms%n",
+                    all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6, all[all.length - 1] / 1e6);
+            System.out.printf("expected quantity=%d actual=%d lost updates=%d%n", expected, actual, expected - actual);
+
+            stub.deleteItem(DeleteItemRequest.newBuilder().setId(item.getId()).build());
+            if (expected != actual) {
+                System.exit(1);
+            }
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+}
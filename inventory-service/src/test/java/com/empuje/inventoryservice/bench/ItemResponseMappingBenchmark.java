@@ -0,0 +1,83 @@
+package com.empuje.inventoryservice.bench;
+
+import com.empuje.inventoryservice.grpc.gen.Category;
+import com.empuje.inventoryservice.grpc.gen.ItemResponse;
+import com.empuje.inventoryservice.model.Item;
+import com.empuje.inventoryservice.util.ItemProtoMapper;
+import com.google.protobuf.Timestamp;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item to ItemResponse mapping: the original per-row implementation against
+ * {@link ItemProtoMapper} (shared and per-stream session). Run with -prof gc to see
+ * allocation per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemResponseMappingBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    /** Share of rows whose category is not a known enum value. */
+    @Param({"0.05"})
+    public double unknownCategoryRatio;
+
+    private final ItemProtoMapper mapper = new ItemProtoMapper();
+    private List<Item> items;
+
+    @Setup
+    public void setUp() {
+        items = BenchmarkItems.generate(size, unknownCategoryRatio);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        for (Item it : items) {
+            bh.consume(legacyToResponse(it));
+        }
+    }
+
+    @Benchmark
+    public void mapper(Blackhole bh) {
+        for (Item it : items) {
+            bh.consume(mapper.toResponse(it));
+        }
+    }
+
+    @Benchmark
+    public void mapperSession(Blackhole bh) {
+        ItemProtoMapper.Session session = mapper.newSession();
+        for (Item it : items) {
+            bh.consume(session.toResponse(it));
+        }
+    }
+
+    /** The mapping as it was before ItemProtoMapper, kept here as the baseline. */
+    private static ItemResponse legacyToResponse(Item it) {
+        Category cat;
+        try {
+            cat = Category.valueOf(it.getCategory());
+        } catch (Exception e) {
+            cat = Category.CATEGORY_UNKNOWN;
+        }
+        Instant created = it.getCreatedAt() != null ? it.getCreatedAt() : Instant.now();
+        return ItemResponse.newBuilder()
+                .setId(it.getId() == null ? 0 : it.getId())
+                .setCategory(cat)
+                .setDescription(it.getDescription() == null ? "" : it.getDescription())
+                .setQuantity(it.getQuantity() == null ? 0 : it.getQuantity())
+                .setDeleted(Boolean.TRUE.equals(it.getDeleted()))
+                .setCreatedAt(Timestamp.newBuilder().setSeconds(created.getEpochSecond()).setNanos(created.getNano()).build())
+                .build();
+    }
+}
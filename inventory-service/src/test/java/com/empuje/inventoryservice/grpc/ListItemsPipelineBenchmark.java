@@ -0,0 +1,126 @@
+package com.empuje.inventoryservice.grpc;
+
+import com.empuje.inventoryservice.bench.BenchmarkItems;
+import com.empuje.inventoryservice.grpc.gen.ItemResponse;
+import com.empuje.inventoryservice.model.Item;
+import com.empuje.inventoryservice.util.ItemProtoMapper;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Repository-to-stream pipeline of ListItems: keyset pages from an in-memory "table",
+ * mapping, and {@link ItemStreamer} writing into an always-ready observer. Compares the
+ * plain mapper with a per-stream session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListItemsPipelineBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"100", "1000"})
+    public int pageSize;
+
+    private final ItemProtoMapper mapper = new ItemProtoMapper();
+    private List<Item> table;
+
+    @Setup
+    public void setUp() {
+        table = BenchmarkItems.generate(size, 0.05);
+    }
+
+    @Benchmark
+    public long streamWithMapper(Blackhole bh) {
+        return stream(mapper::toResponse, bh);
+    }
+
+    @Benchmark
+    public long streamWithSession(Blackhole bh) {
+        return stream(mapper.newSession()::toResponse, bh);
+    }
+
+    private long stream(Function<Item, ItemResponse> mapping, Blackhole bh) {
+        SinkObserver sink = new SinkObserver(bh);
+        new ItemStreamer<>(sink, new KeysetPageSource(this::fetch, mapping, pageSize, null, null)).start();
+        sink.ready.run();
+        return sink.count;
+    }
+
+    /** Ids are dense and descending, so the keyset cursor maps straight to a list offset. */
+    private List<Item> fetch(Instant afterCreatedAt, Long afterId, int limit) {
+        int from = afterId == null ? 0 : size - afterId.intValue() + 1;
+        return table.subList(Math.min(from, size), Math.min(from + limit, size));
+    }
+
+    private static final class SinkObserver extends ServerCallStreamObserver<ItemResponse> {
+
+        private final Blackhole bh;
+        private Runnable ready;
+        private long count;
+
+        SinkObserver(Blackhole bh) {
+            this.bh = bh;
+        }
+
+        @Override
+        public void onNext(ItemResponse value) {
+            count++;
+            bh.consume(value);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            this.ready = onReadyHandler;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            throw new IllegalStateException(t);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public void setOnCancelHandler(Runnable onCancelHandler) {
+        }
+
+        @Override
+        public void setCompression(String compression) {
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void request(int count) {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.empuje.inventoryservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeVersionsTest {
+
+    private static final int BLOCK_SIZE = 10;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ChangeVersions changeVersions;
+
+    @BeforeEach
+    void setUp() {
+        changeVersions = new ChangeVersions(jdbcTemplate, transactionManager, BLOCK_SIZE);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void horizon_BeforeFirstBlock_ReturnsStoredVersion() throws Exception {
+        // Arrange
+        storedVersions(42, 7);
+
+        // Act
+        ChangeVersions.Horizon horizon = changeVersions.horizon();
+
+        // Assert
+        assertEquals(42, horizon.current());
+        assertEquals(7, horizon.purgedThrough());
+    }
+
+    @Test
+    void horizon_WithEarlierVersionInFlight_StaysBelowIt() {
+        // Arrange
+        blockEndsAt(BLOCK_SIZE);
+        long first = changeVersions.reserve(1);
+        long second = changeVersions.reserve(2);
+
+        // Act
+        completeTransactionOf(1);
+        ChangeVersions.Horizon afterSecond = changeVersions.horizon();
+        completeTransactionOf(0);
+        ChangeVersions.Horizon afterBoth = changeVersions.horizon();
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(0, afterSecond.current());
+        assertEquals(3, afterBoth.current());
+    }
+
+    @Test
+    void horizon_WithLaterVersionInFlight_CoversCommittedOnes() {
+        // Arrange
+        blockEndsAt(BLOCK_SIZE);
+        changeVersions.reserve(3);
+        changeVersions.reserve(1);
+
+        // Act
+        completeTransactionOf(0);
+        ChangeVersions.Horizon horizon = changeVersions.horizon();
+
+        // Assert
+        assertEquals(3, horizon.current());
+    }
+
+    @Test
+    void reserve_WhenBlockRunsOut_AllocatesNextBlock() {
+        // Arrange
+        when(jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class)).thenReturn(10L, 25L);
+
+        // Act
+        long first = changeVersions.reserve(8);
+        long second = changeVersions.reserve(5);
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(16, second);
+        verify(jdbcTemplate, times(2)).update(anyString(), anyInt(), eq("inventory_items"));
+    }
+
+    private void blockEndsAt(long last) {
+        when(jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class)).thenReturn(last);
+    }
+
+    private void storedVersions(long items, long purged) throws Exception {
+        ResultSet itemsRow = mock(ResultSet.class);
+        ResultSet purgedRow = mock(ResultSet.class);
+        when(itemsRow.getString(1)).thenReturn("inventory_items");
+        when(itemsRow.getLong(2)).thenReturn(items);
+        when(purgedRow.getString(1)).thenReturn("inventory_items_purged");
+        when(purgedRow.getLong(2)).thenReturn(purged);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(itemsRow);
+            handler.processRow(purgedRow);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any());
+    }
+
+    /** Runs the completion callback registered by the {@code index}-th reserve. */
+    private static void completeTransactionOf(int index) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.get(index).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+    }
+}
@@ -0,0 +1,191 @@
+package com.empuje.inventoryservice.service;
+
+import com.empuje.inventoryservice.cache.ItemCache;
+import com.empuje.inventoryservice.model.Item;
+import com.empuje.inventoryservice.repository.ItemRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemServiceTest {
+
+    private static final String KEY = "transfer-1";
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ItemCache itemCache;
+
+    @Mock
+    private ChangeVersions changeVersions;
+
+    @Mock
+    private ApplicationEventPublisher events;
+
+    private ItemService itemService;
+
+    @BeforeEach
+    void setUp() {
+        itemService = new ItemService(itemRepository, jdbcTemplate, itemCache, changeVersions, events);
+    }
+
+    @Test
+    void adjustQuantity_WithValidDelta_StampsVersionAndPublishesPrevious() {
+        // Arrange
+        when(itemRepository.adjustQuantity(eq(1L), eq(-2), any())).thenReturn(1);
+        when(changeVersions.reserve(1)).thenReturn(50L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item(1L, 3)));
+
+        // Act
+        Item result = itemService.adjustQuantity(1L, -2);
+
+        // Assert
+        assertEquals(3, result.getQuantity());
+        verify(itemRepository).stampChangeVersion(1L, 50L);
+        ArgumentCaptor<ItemChangedEvent> event = ArgumentCaptor.forClass(ItemChangedEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertEquals(5, event.getValue().previous().getQuantity());
+    }
+
+    @Test
+    void adjustQuantity_WhenResultWouldBeNegative_ThrowsIllegalState() {
+        // Arrange
+        when(itemRepository.adjustQuantity(eq(1L), eq(-10), any())).thenReturn(0);
+        when(itemCache.get(eq(1L), any())).thenReturn(Optional.of(item(1L, 3)));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> itemService.adjustQuantity(1L, -10));
+        verify(changeVersions, never()).reserve(anyInt());
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void adjustQuantity_WhenItemMissing_ThrowsIllegalArgument() {
+        // Arrange
+        when(itemRepository.adjustQuantity(eq(9L), eq(1), any())).thenReturn(0);
+        when(itemCache.get(eq(9L), any())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> itemService.adjustQuantity(9L, 1));
+        verify(changeVersions, never()).reserve(anyInt());
+    }
+
+    @Test
+    void adjustQuantities_WithValidDeltas_LocksRowsBeforeWritingOneBatch() {
+        // Arrange
+        SortedMap<Long, Integer> deltas = deltas(2L, 5, 1L, -1);
+        when(itemRepository.findAllByIdForUpdate(deltas.keySet())).thenReturn(List.of(item(1L, 1), item(2L, 0)));
+        when(changeVersions.reserve(2)).thenReturn(100L);
+
+        // Act
+        BulkAdjustmentResult result = itemService.adjustQuantities(deltas, List.of(), 7L, null);
+
+        // Assert
+        assertTrue(result.isApplied());
+        assertFalse(result.isReplayed());
+        assertEquals(List.of(0, 5), result.getLines().stream().map(BulkAdjustmentResult.Line::quantity).toList());
+        InOrder order = inOrder(itemRepository, changeVersions, jdbcTemplate);
+        order.verify(itemRepository).findAllByIdForUpdate(deltas.keySet());
+        order.verify(changeVersions).reserve(2);
+        order.verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+        verify(events, times(2)).publishEvent(any(ItemChangedEvent.class));
+    }
+
+    @Test
+    void adjustQuantities_WhenAnyLineInvalid_WritesNothing() {
+        // Arrange
+        SortedMap<Long, Integer> deltas = deltas(1L, 1, 2L, -3);
+        when(itemRepository.findAllByIdForUpdate(deltas.keySet())).thenReturn(List.of(item(1L, 1), item(2L, 2)));
+
+        // Act
+        BulkAdjustmentResult result = itemService.adjustQuantities(deltas, List.of(), 7L, null);
+
+        // Assert
+        assertFalse(result.isApplied());
+        assertEquals(List.of(true, false), result.getLines().stream().map(BulkAdjustmentResult.Line::success).toList());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verifyNoInteractions(changeVersions, events);
+    }
+
+    @Test
+    void adjustQuantities_WithReplayedKey_AppliesOnlyOnce() {
+        // Arrange
+        SortedMap<Long, Integer> deltas = deltas(1L, 4);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(KEY))).thenReturn(0, 1);
+        when(itemRepository.findAllByIdForUpdate(deltas.keySet())).thenReturn(List.of(item(1L, 1)));
+        when(jdbcTemplate.update(anyString(), eq(KEY), any())).thenReturn(1);
+        when(changeVersions.reserve(1)).thenReturn(100L);
+
+        // Act
+        BulkAdjustmentResult first = itemService.adjustQuantities(deltas, List.of(), 7L, KEY);
+        BulkAdjustmentResult replay = itemService.adjustQuantities(deltas, List.of(), 7L, KEY);
+
+        // Assert
+        assertFalse(first.isReplayed());
+        assertTrue(replay.isReplayed());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        verify(itemRepository, times(1)).findAllByIdForUpdate(any());
+    }
+
+    @Test
+    void adjustQuantities_WhenKeyClaimedWhileWaitingOnLocks_ReturnsReplayed() {
+        // Arrange
+        SortedMap<Long, Integer> deltas = deltas(1L, 4);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(KEY))).thenReturn(0);
+        when(itemRepository.findAllByIdForUpdate(deltas.keySet())).thenReturn(List.of(item(1L, 1)));
+        when(jdbcTemplate.update(anyString(), eq(KEY), any())).thenReturn(0);
+
+        // Act
+        BulkAdjustmentResult result = itemService.adjustQuantities(deltas, List.of(), 7L, KEY);
+
+        // Assert
+        assertTrue(result.isReplayed());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(changeVersions, never()).reserve(anyInt());
+        verify(itemRepository, never()).stampChangeVersion(anyLong(), anyLong());
+    }
+
+    private static SortedMap<Long, Integer> deltas(Object... idsAndDeltas) {
+        SortedMap<Long, Integer> deltas = new TreeMap<>();
+        for (int i = 0; i < idsAndDeltas.length; i += 2) {
+            deltas.put((Long) idsAndDeltas[i], (Integer) idsAndDeltas[i + 1]);
+        }
+        return deltas;
+    }
+
+    private static Item item(long id, int quantity) {
+        return Item.builder()
+                .id(id)
+                .category("ROPA")
+                .description("Item " + id)
+                .quantity(quantity)
+                .deleted(false)
+                .changeVersion(1L)
+                .build();
+    }
+}
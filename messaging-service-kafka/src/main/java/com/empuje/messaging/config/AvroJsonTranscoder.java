@@ -0,0 +1,135 @@
+package com.empuje.messaging.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.io.EncoderFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+/**
+ * Pasa un mensaje de JSON a Avro binario y de vuelta, guiado solo por el esquema: no hay
+ * clases generadas ni GenericRecord intermedios. Al codificar, los campos que el esquema no
+ * conoce se ignoran y los que faltan van como null; al decodificar, el JSON sale con los
+ * nombres del esquema con que se escribió.
+ *
+ * Cubre los tipos que usan los esquemas de classpath:schemas (registros, arrays, uniones
+ * con null, strings y números); otro tipo es un error de esquema.
+ */
+class AvroJsonTranscoder {
+
+    private final ObjectMapper treeMapper = new ObjectMapper();
+    private final JsonFactory jsonFactory = treeMapper.getFactory();
+
+    byte[] toAvro(String json, Schema schema) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(32, json.length() / 2));
+        BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+        write(schema, treeMapper.readTree(json), encoder);
+        encoder.flush();
+        return out.toByteArray();
+    }
+
+    String toJson(byte[] avro, Schema schema) throws IOException {
+        StringWriter out = new StringWriter(avro.length * 2);
+        BinaryDecoder decoder = DecoderFactory.get().binaryDecoder(avro, null);
+        try (JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            read(schema, decoder, generator);
+        }
+        return out.toString();
+    }
+
+    private static void write(Schema schema, JsonNode node, BinaryEncoder encoder) throws IOException {
+        boolean missing = node == null || node.isNull();
+        switch (schema.getType()) {
+            case RECORD -> {
+                for (Schema.Field field : schema.getFields()) {
+                    write(field.schema(), missing ? null : node.get(field.name()), encoder);
+                }
+            }
+            case UNION -> {
+                List<Schema> branches = schema.getTypes();
+                int branch = branch(branches, missing);
+                encoder.writeIndex(branch);
+                write(branches.get(branch), node, encoder);
+            }
+            case ARRAY -> {
+                encoder.writeArrayStart();
+                encoder.setItemCount(missing ? 0 : node.size());
+                if (!missing) {
+                    for (JsonNode item : node) {
+                        encoder.startItem();
+                        write(schema.getElementType(), item, encoder);
+                    }
+                }
+                encoder.writeArrayEnd();
+            }
+            case NULL -> encoder.writeNull();
+            case STRING -> encoder.writeString(required(schema, node, missing).asText());
+            case DOUBLE -> encoder.writeDouble(required(schema, node, missing).asDouble());
+            case FLOAT -> encoder.writeFloat((float) required(schema, node, missing).asDouble());
+            case LONG -> encoder.writeLong(required(schema, node, missing).asLong());
+            case INT -> encoder.writeInt(required(schema, node, missing).asInt());
+            case BOOLEAN -> encoder.writeBoolean(required(schema, node, missing).asBoolean());
+            default -> throw new IllegalArgumentException("Tipo Avro no soportado: " + schema.getType());
+        }
+    }
+
+    private static void read(Schema schema, BinaryDecoder decoder, JsonGenerator generator) throws IOException {
+        switch (schema.getType()) {
+            case RECORD -> {
+                generator.writeStartObject();
+                for (Schema.Field field : schema.getFields()) {
+                    generator.writeFieldName(field.name());
+                    read(field.schema(), decoder, generator);
+                }
+                generator.writeEndObject();
+            }
+            case UNION -> read(schema.getTypes().get(decoder.readIndex()), decoder, generator);
+            case ARRAY -> {
+                generator.writeStartArray();
+                for (long n = decoder.readArrayStart(); n > 0; n = decoder.arrayNext()) {
+                    for (long i = 0; i < n; i++) {
+                        read(schema.getElementType(), decoder, generator);
+                    }
+                }
+                generator.writeEndArray();
+            }
+            case NULL -> {
+                decoder.readNull();
+                generator.writeNull();
+            }
+            case STRING -> generator.writeString(decoder.readString());
+            case DOUBLE -> generator.writeNumber(decoder.readDouble());
+            case FLOAT -> generator.writeNumber(decoder.readFloat());
+            case LONG -> generator.writeNumber(decoder.readLong());
+            case INT -> generator.writeNumber(decoder.readInt());
+            case BOOLEAN -> generator.writeBoolean(decoder.readBoolean());
+            default -> throw new IllegalArgumentException("Tipo Avro no soportado: " + schema.getType());
+        }
+    }
+
+    /** La rama null si no hay valor; si no, la primera que no sea null. */
+    private static int branch(List<Schema> branches, boolean missing) {
+        for (int i = 0; i < branches.size(); i++) {
+            if ((branches.get(i).getType() == Schema.Type.NULL) == missing) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(missing ? "Valor requerido ausente" : "Unión sin rama para el valor");
+    }
+
+    private static JsonNode required(Schema schema, JsonNode node, boolean missing) {
+        if (missing) {
+            throw new IllegalArgumentException("Valor requerido ausente para " + schema.getType());
+        }
+        return node;
+    }
+}
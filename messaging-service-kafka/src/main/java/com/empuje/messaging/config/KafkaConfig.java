@@ -1,5 +1,11 @@
 package com.empuje.messaging.config;
 
+import com.empuje.messaging.producer.ExternalEventProducer;
+import com.empuje.messaging.service.DemandWindows;
+import com.empuje.messaging.service.EventCancellationIndex;
+import com.empuje.messaging.service.MatchingService;
+import com.empuje.messaging.service.OpenRequestView;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
@@ -8,20 +14,42 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
 public class KafkaConfig {
 
+    private static final long IDLE_EVENT_INTERVAL_MS = 5000L;
+
     @Value("${spring.kafka.bootstrap-servers:kafka:29092}")
     private String bootstrapServers;
 
+    @Value("${empuje.kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${empuje.kafka.routing.partitions:6}")
+    private int routedTopicPartitions;
+
+    @Value("${empuje.kafka.producer.profile:throughput}")
+    private String producerProfile;
+
     @Bean
-    public ProducerFactory<String, String> producerFactory() {
+    public ProducerFactory<String, String> producerFactory(WireFormatSerializer valueSerializer) {
+        return new DefaultKafkaProducerFactory<>(producerProperties(bootstrapServers, ProducerProfile.of(producerProfile)),
+                new StringSerializer(), valueSerializer);
+    }
+
+    public static Map<String, Object> producerProperties(String bootstrapServers, ProducerProfile profile) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
@@ -29,17 +57,90 @@ public class KafkaConfig {
         configProps.put(ProducerConfig.ACKS_CONFIG, "all");
         configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
         configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        profile.applyTo(configProps);
+        return configProps;
+    }
+
+    @Bean
+    public KafkaTemplate<String, String> kafkaTemplate(ProducerFactory<String, String> producerFactory) {
+        return new KafkaTemplate<>(producerFactory);
+    }
+
+    @Bean
+    public NewTopic transferTopic() {
+        return TopicBuilder.name(KafkaRouting.TRANSFER_TOPIC).partitions(routedTopicPartitions).build();
+    }
+
+    @Bean
+    public NewTopic participationTopic() {
+        return TopicBuilder.name(KafkaRouting.PARTICIPATION_TOPIC).partitions(routedTopicPartitions).build();
+    }
+
+    @Bean
+    public NewTopic confirmationTopic() {
+        return TopicBuilder.name(KafkaRouting.CONFIRMATION_TOPIC).partitions(routedTopicPartitions).build();
+    }
+
+    /**
+     * Eventos vigentes de toda la red, compactado por organización|evento. Si el tópico ya
+     * existía como append, hay que cambiarle cleanup.policy a mano: KafkaAdmin no lo modifica.
+     */
+    @Bean
+    public NewTopic externalEventsTopic() {
+        return TopicBuilder.name(ExternalEventProducer.TOPIC)
+                .partitions(routedTopicPartitions)
+                .compact()
+                .build();
+    }
+
+    /** Changelog de la vista de solicitudes abiertas: compactado, queda una entrada por solicitud. */
+    @Bean
+    public NewTopic openRequestsChangelogTopic(KafkaRouting routing) {
+        return TopicBuilder.name(OpenRequestView.changelogTopic(routing.getOrganizationId()))
+                .partitions(1)
+                .compact()
+                .build();
+    }
+
+    /** Changelog de las bajas de eventos externos: compactado, queda una entrada por evento. */
+    @Bean
+    public NewTopic eventCancellationsChangelogTopic(KafkaRouting routing) {
+        return TopicBuilder.name(EventCancellationIndex.changelogTopic(routing.getOrganizationId()))
+                .partitions(1)
+                .compact()
+                .build();
+    }
 
-        return new DefaultKafkaProducerFactory<>(configProps);
+    /** Changelog de los paneles de demanda: compactado, queda una entrada por hora|organización|categoría. */
+    @Bean
+    public NewTopic demandChangelogTopic(KafkaRouting routing) {
+        return TopicBuilder.name(DemandWindows.changelogTopic(routing.getOrganizationId()))
+                .partitions(1)
+                .compact()
+                .build();
     }
 
     @Bean
-    public KafkaTemplate<String, String> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public NewTopic matchTopic(KafkaRouting routing) {
+        return TopicBuilder.name(MatchingService.matchTopic(routing.getOrganizationId()))
+                .partitions(routedTopicPartitions)
+                .build();
     }
 
     @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    public KafkaAdmin.NewTopics retryTopics(KafkaRetryTopics retryTopics) {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String name : retryTopics.getRetryTopicNames()) {
+            topics.add(TopicBuilder.name(name).partitions(1).build());
+        }
+        for (String name : retryTopics.getDeadLetterTopicNames()) {
+            topics.add(TopicBuilder.name(name).partitions(1).build());
+        }
+        return new KafkaAdmin.NewTopics(topics.toArray(new NewTopic[0]));
+    }
+
+    @Bean
+    public ConsumerFactory<String, String> consumerFactory(WireFormatDeserializer valueDeserializer) {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ConsumerConfig.GROUP_ID_CONFIG, "empuje-messaging-group");
@@ -47,16 +148,92 @@ public class KafkaConfig {
         configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        // no leer lo que escribió una transacción abortada (ver TransactionalKafka)
+        configProps.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+
+        // un valor ilegible no corta el poll: llega con valor null y la excepción en un header
+        return new DefaultKafkaConsumerFactory<>(configProps, new StringDeserializer(),
+                new ErrorHandlingDeserializer<>(valueDeserializer));
+    }
+
+    /**
+     * Los listeners reciben el lote completo de cada poll y el contenedor confirma los
+     * offsets una sola vez, cuando el lote termina. Si un registro falla, el listener lanza
+     * BatchListenerFailedException con su índice: se confirman los anteriores, ese registro
+     * pasa a los tópicos de reintento (sin frenar la partición) y se sigue con el resto.
+     * Los registros que no nos corresponden se descartan antes, por headers.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
+            ConsumerFactory<String, String> consumerFactory, OrganizationRecordFilter recordFilter, RetryTopicRecoverer recoverer) {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(errorHandler(recoverer));
+        factory.setRecordFilterStrategy(recordFilter);
+        return factory;
+    }
 
-        return new DefaultKafkaConsumerFactory<>(configProps);
+    /**
+     * Como kafkaListenerContainerFactory, pero cada lote corre en una transacción de Kafka:
+     * lo que el listener envía con TransactionalKafka y los offsets se confirman juntos.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> transferListenerContainerFactory(
+            ConsumerFactory<String, String> consumerFactory, OrganizationRecordFilter recordFilter,
+            RetryTopicRecoverer recoverer, TransactionalKafka transactionalKafka) {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        if (transactionalKafka.isEnabled()) {
+            factory.getContainerProperties().setTransactionManager(transactionalKafka.getTransactionManager());
+        }
+        factory.setCommonErrorHandler(errorHandler(recoverer));
+        factory.setRecordFilterStrategy(recordFilter);
+        return factory;
     }
 
+    /**
+     * Como kafkaListenerContainerFactory, pero el listener confirma con Acknowledgment cuando
+     * lo que consumió ya está escrito (ver ExternalEventCatalog), aunque sea en un poll posterior.
+     * El evento de inactividad avisa que se leyó todo (ver ExternalEventCatchUp).
+     */
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, String> writeBehindListenerContainerFactory(
+            ConsumerFactory<String, String> consumerFactory, OrganizationRecordFilter recordFilter, RetryTopicRecoverer recoverer) {
         ConcurrentKafkaListenerContainerFactory<String, String> factory =
             new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setConsumerFactory(consumerFactory());
-        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setConsumerFactory(consumerFactory);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setIdleEventInterval(IDLE_EVENT_INTERVAL_MS);
+        factory.setCommonErrorHandler(errorHandler(recoverer));
+        factory.setRecordFilterStrategy(recordFilter);
         return factory;
     }
+
+    /**
+     * Consume los tópicos de reintento de a un registro, con ack manual: si el registro
+     * todavía no venció, RetryTopicConsumer pausa solo su partición hasta que venza.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> retryListenerContainerFactory(
+            ConsumerFactory<String, String> consumerFactory, RetryTopicRecoverer recoverer) {
+        ConcurrentKafkaListenerContainerFactory<String, String> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(errorHandler(recoverer));
+        return factory;
+    }
+
+    /** Sin reintentos en memoria: el registro fallido sale de la partición enseguida. */
+    private DefaultErrorHandler errorHandler(RetryTopicRecoverer recoverer) {
+        return new DefaultErrorHandler(recoverer, new FixedBackOff(0L, 0L));
+    }
 }
@@ -0,0 +1,174 @@
+package com.empuje.messaging.config;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Nombres y headers del circuito de reintentos.
+ *
+ * Un registro que falla no se reintenta en el tópico original (eso frenaría la partición):
+ * se publica en "&lt;tópico&gt;-&lt;org&gt;-retry-1" con la hora a la que vence, y si vuelve a
+ * fallar pasa a retry-2, retry-3..., con demoras que crecen exponencialmente. Agotados los
+ * intentos, o si el error no tiene arreglo (payload inválido), termina en
+ * "&lt;tópico&gt;-&lt;org&gt;-dlt" con los datos del error en los headers; si el valor ni
+ * siquiera se pudo deserializar, sus bytes originales van en {@link #ORIGINAL_VALUE_HEADER}. Los tópicos llevan el id
+ * de la organización porque el cluster es compartido por toda la federación.
+ */
+@Getter
+@Component
+@RequiredArgsConstructor
+public class KafkaRetryTopics {
+
+    public static final String ATTEMPT_HEADER = "empuje-retry-attempt";
+    public static final String DUE_AT_HEADER = "empuje-retry-due-at";
+    public static final String ORIGINAL_TOPIC_HEADER = "empuje-original-topic";
+    public static final String ORIGINAL_PARTITION_HEADER = "empuje-original-partition";
+    public static final String ORIGINAL_OFFSET_HEADER = "empuje-original-offset";
+    public static final String EXCEPTION_HEADER = "empuje-exception";
+    public static final String EXCEPTION_MESSAGE_HEADER = "empuje-exception-message";
+    public static final String FAILED_AT_HEADER = "empuje-failed-at";
+    /** Bytes originales de un valor que no se pudo deserializar (el valor del DLT queda null). */
+    public static final String ORIGINAL_VALUE_HEADER = "empuje-original-value";
+
+    /** Tópicos consumidos cuyos registros fallidos pasan por el circuito de reintentos. */
+    public static final List<String> RETRYABLE_TOPICS = List.of(
+            "solicitud-donaciones",
+            "oferta-donaciones",
+            KafkaRouting.TRANSFER_TOPIC,
+            KafkaRouting.PARTICIPATION_TOPIC,
+            "eventos-solidarios",
+            "baja-solicitud-donaciones",
+            "baja-evento-solidario");
+
+    private final KafkaRouting kafkaRouting;
+
+    @Value("${empuje.kafka.retry.attempts:3}")
+    private int attempts;
+
+    @Value("${empuje.kafka.retry.initial-interval-ms:1000}")
+    private long initialIntervalMs;
+
+    @Value("${empuje.kafka.retry.multiplier:4.0}")
+    private double multiplier;
+
+    public String retryTopic(String topic, int attempt) {
+        return topic + "-" + kafkaRouting.getOrganizationId() + "-retry-" + attempt;
+    }
+
+    public String deadLetterTopic(String topic) {
+        return topic + "-" + kafkaRouting.getOrganizationId() + "-dlt";
+    }
+
+    /** Demora del intento {@code attempt} (1..attempts). */
+    public long delayMs(int attempt) {
+        return (long) (initialIntervalMs * Math.pow(multiplier, attempt - 1));
+    }
+
+    public String[] getRetryTopicNames() {
+        List<String> names = new ArrayList<>();
+        for (String topic : RETRYABLE_TOPICS) {
+            for (int attempt = 1; attempt <= attempts; attempt++) {
+                names.add(retryTopic(topic, attempt));
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    public List<String> getDeadLetterTopicNames() {
+        return RETRYABLE_TOPICS.stream().map(this::deadLetterTopic).toList();
+    }
+
+    /**
+     * Siguiente destino de un registro que falló: el próximo nivel de reintento o, si ya no
+     * quedan intentos o el error no es reintentable, el DLT.
+     */
+    public ProducerRecord<String, String> nextDestination(ConsumerRecord<String, String> failed, Throwable cause,
+                                                          boolean retryable) {
+        int attempt = intHeader(failed, ATTEMPT_HEADER).orElse(0) + 1;
+        String originalTopic = originalTopic(failed);
+        boolean dead = !retryable || attempt > attempts;
+        String target = dead ? deadLetterTopic(originalTopic) : retryTopic(originalTopic, attempt);
+
+        ProducerRecord<String, String> out = new ProducerRecord<>(target, null, failed.key(), failed.value(),
+                copyHeaders(failed.headers()));
+        Headers headers = out.headers();
+        headers.remove(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER);
+        if (cause instanceof DeserializationException e && e.getData() != null) {
+            headers.remove(ORIGINAL_VALUE_HEADER);
+            headers.add(ORIGINAL_VALUE_HEADER, e.getData());
+        }
+        if (failed.headers().lastHeader(ORIGINAL_TOPIC_HEADER) == null) {
+            put(headers, ORIGINAL_TOPIC_HEADER, failed.topic());
+            put(headers, ORIGINAL_PARTITION_HEADER, String.valueOf(failed.partition()));
+            put(headers, ORIGINAL_OFFSET_HEADER, String.valueOf(failed.offset()));
+        }
+        put(headers, ATTEMPT_HEADER, String.valueOf(attempt));
+        put(headers, FAILED_AT_HEADER, Instant.now().toString());
+        put(headers, EXCEPTION_HEADER, cause.getClass().getName());
+        put(headers, EXCEPTION_MESSAGE_HEADER, String.valueOf(cause.getMessage()));
+        if (!dead) {
+            put(headers, DUE_AT_HEADER, String.valueOf(System.currentTimeMillis() + delayMs(attempt)));
+        }
+        return out;
+    }
+
+    /** Reinyecta una entrada del DLT en el primer nivel de reintento, para procesarla ya. */
+    public ProducerRecord<String, String> replay(ConsumerRecord<String, String> dead) {
+        ProducerRecord<String, String> out = new ProducerRecord<>(retryTopic(originalTopic(dead), 1), null,
+                dead.key(), dead.value(), copyHeaders(dead.headers()));
+        put(out.headers(), ATTEMPT_HEADER, "1");
+        put(out.headers(), DUE_AT_HEADER, String.valueOf(System.currentTimeMillis()));
+        return out;
+    }
+
+    /** El registro tal como llegó al tópico original, para entregarlo al consumidor de ese tópico. */
+    public ConsumerRecord<String, String> asOriginal(ConsumerRecord<String, String> retry) {
+        return new ConsumerRecord<>(originalTopic(retry),
+                intHeader(retry, ORIGINAL_PARTITION_HEADER).orElse(retry.partition()),
+                longHeader(retry, ORIGINAL_OFFSET_HEADER).orElse(retry.offset()),
+                retry.timestamp(), retry.timestampType(), retry.serializedKeySize(), retry.serializedValueSize(),
+                retry.key(), retry.value(), retry.headers(), retry.leaderEpoch());
+    }
+
+    public String originalTopic(ConsumerRecord<?, ?> record) {
+        String original = KafkaRouting.header(record, ORIGINAL_TOPIC_HEADER);
+        return original != null ? original : record.topic();
+    }
+
+    public static Optional<Integer> intHeader(ConsumerRecord<?, ?> record, String name) {
+        return longHeader(record, name).map(Long::intValue);
+    }
+
+    public static Optional<Long> longHeader(ConsumerRecord<?, ?> record, String name) {
+        String value = KafkaRouting.header(record, name);
+        return value == null ? Optional.empty() : Optional.of(Long.parseLong(value));
+    }
+
+    private static Headers copyHeaders(Headers source) {
+        RecordHeaders copy = new RecordHeaders();
+        for (Header header : source) {
+            copy.add(header);
+        }
+        return copy;
+    }
+
+    private static void put(Headers headers, String name, String value) {
+        headers.remove(name);
+        headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+    }
+}
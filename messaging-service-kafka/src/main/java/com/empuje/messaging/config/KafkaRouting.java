@@ -0,0 +1,100 @@
+package com.empuje.messaging.config;
+
+import lombok.Getter;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * Ruteo de los mensajes dirigidos a una organización (transferencias y adhesiones).
+ *
+ * Antes cada organización tenía su propio tópico ("transferencia-donaciones/&lt;org&gt;"),
+ * pero '/' no es un carácter válido en nombres de tópico y un tópico por organización
+ * multiplica particiones, metadata y rebalanceos. Ahora hay un único tópico particionado
+ * por tipo de mensaje: la clave es la organización destino, lo que mantiene el orden por
+ * destino, y el header {@link #TARGET_ORG_HEADER} permite filtrar sin leer el payload.
+ */
+@Getter
+@Component
+public class KafkaRouting {
+
+    public static final String TRANSFER_TOPIC = "transferencia-donaciones";
+    public static final String PARTICIPATION_TOPIC = "adhesion-evento";
+    /** Confirmaciones de transferencias recibidas, dirigidas al donante. */
+    public static final String CONFIRMATION_TOPIC = "confirmacion-transferencia";
+    public static final String TARGET_ORG_HEADER = "empuje-target-org";
+    /** Organización que publicó el mensaje. */
+    public static final String ORIGIN_ORG_HEADER = "empuje-org-id";
+    /** Tipo de mensaje (nombre simple de la clase del modelo). */
+    public static final String MESSAGE_TYPE_HEADER = "empuje-message-type";
+
+    /** Nuestra organización dentro de la federación. */
+    @Value("${empuje.organization-id:empuje-org-001}")
+    private String organizationId;
+
+    /** Separador de los tópicos por organización que todavía usen otras organizaciones. */
+    @Value("${empuje.kafka.routing.legacy-separator:.}")
+    private String legacySeparator;
+
+    /** Durante la migración, publicar también en el tópico viejo del destino. */
+    @Value("${empuje.kafka.routing.legacy-publish:false}")
+    private boolean legacyPublish;
+
+    /**
+     * Arma el registro con los headers de origen y tipo, que permiten a los consumidores
+     * descartar mensajes sin deserializar el payload (ver OrganizationRecordFilter).
+     */
+    public ProducerRecord<String, String> record(String topic, String key, String payload,
+                                                 String messageType, String originOrganizationId) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(topic, key, payload);
+        addHeader(record, MESSAGE_TYPE_HEADER, messageType);
+        addHeader(record, ORIGIN_ORG_HEADER, originOrganizationId);
+        return record;
+    }
+
+    public ProducerRecord<String, String> toOrganization(String topic, String targetOrganizationId, String payload,
+                                                         String messageType, String originOrganizationId) {
+        ProducerRecord<String, String> record = record(topic, targetOrganizationId, payload, messageType, originOrganizationId);
+        addHeader(record, TARGET_ORG_HEADER, targetOrganizationId);
+        return record;
+    }
+
+    public boolean isRoutedTopic(String topic) {
+        return TRANSFER_TOPIC.equals(topic) || PARTICIPATION_TOPIC.equals(topic) || CONFIRMATION_TOPIC.equals(topic);
+    }
+
+    public String legacyTopic(String topic, String organizationId) {
+        return topic + legacySeparator + organizationId;
+    }
+
+    /** Patrón de los tópicos viejos dirigidos a nosotros, para el bridge de migración. */
+    public String getLegacyPattern() {
+        return "(" + TRANSFER_TOPIC + "|" + PARTICIPATION_TOPIC + ")"
+                + Pattern.quote(legacySeparator + organizationId);
+    }
+
+    /** Si el registro va dirigido a nosotros, según el header de ruteo o, si falta, la clave. */
+    public boolean isForUs(ConsumerRecord<String, ?> record) {
+        String target = header(record, TARGET_ORG_HEADER);
+        if (target != null) {
+            return organizationId.equals(target);
+        }
+        return organizationId.equals(record.key());
+    }
+
+    public static String header(ConsumerRecord<?, ?> record, String name) {
+        Header header = record.headers().lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    private static void addHeader(ProducerRecord<String, String> record, String name, String value) {
+        if (value != null) {
+            record.headers().add(name, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.empuje.messaging.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Registro de esquemas Avro leído de classpath:schemas, en lugar de un schema registry
+ * externo. Cada archivo es {@code <TipoDeMensaje>.v<N>.avsc} y su id es el nombre sin
+ * extensión; ese id viaja en el header de formato, así el receptor decodifica con el
+ * esquema exacto con el que se escribió. Para escribir se usa la versión más alta.
+ */
+@Slf4j
+@Component
+public class LocalSchemaRegistry {
+
+    private static final Pattern FILE_NAME = Pattern.compile("(\\w+)\\.v(\\d+)\\.avsc");
+
+    private final Map<String, Schema> byId = new HashMap<>();
+    private final Map<String, String> latestIdByType = new HashMap<>();
+
+    public LocalSchemaRegistry() {
+        Map<String, Integer> latestVersion = new HashMap<>();
+        try {
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath*:schemas/*.avsc")) {
+                Matcher m = FILE_NAME.matcher(resource.getFilename() == null ? "" : resource.getFilename());
+                if (!m.matches()) {
+                    log.warn("Esquema ignorado, el nombre no sigue <Tipo>.v<N>.avsc: {}", resource.getFilename());
+                    continue;
+                }
+                String type = m.group(1);
+                int version = Integer.parseInt(m.group(2));
+                String id = type + ".v" + version;
+                try (InputStream in = resource.getInputStream()) {
+                    byId.put(id, new Schema.Parser().parse(in));
+                }
+                if (version > latestVersion.getOrDefault(type, 0)) {
+                    latestVersion.put(type, version);
+                    latestIdByType.put(type, id);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron leer los esquemas Avro", e);
+        }
+        log.info("Esquemas Avro cargados: {}", byId.keySet());
+    }
+
+    /** Id del esquema vigente para un tipo de mensaje, o null si el tipo no tiene esquema. */
+    public String latestId(String messageType) {
+        return messageType == null ? null : latestIdByType.get(messageType);
+    }
+
+    public Schema get(String schemaId) {
+        return byId.get(schemaId);
+    }
+}
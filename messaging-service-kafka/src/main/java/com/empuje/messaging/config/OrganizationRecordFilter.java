@@ -0,0 +1,63 @@
+package com.empuje.messaging.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.adapter.RecordFilterStrategy;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Descarta, mirando solo los headers, los registros que no nos interesan: los dirigidos a
+ * otra organización, los de tipos que no procesamos y, en los tópicos de
+ * {@code empuje.kafka.filter.own-origin-topics}, los publicados por nuestra propia
+ * organización. En el resto de los tópicos lo propio sí se procesa: la vista de solicitudes
+ * abiertas, el matching y la demanda incluyen a nuestra organización. Se aplica en el
+ * container factory, antes de que el listener deserialice nada. Los registros sin headers
+ * (productores viejos) pasan y se validan como antes.
+ *
+ * Cada descarte se cuenta en empuje.kafka.records.filtered, por tópico y motivo.
+ */
+@Component
+@RequiredArgsConstructor
+public class OrganizationRecordFilter implements RecordFilterStrategy<String, String> {
+
+    private final KafkaRouting kafkaRouting;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    @Value("${empuje.kafka.filter.ignored-types:}")
+    private Set<String> ignoredTypes;
+
+    @Value("${empuje.kafka.filter.own-origin-topics:eventos-solidarios}")
+    private Set<String> ownOriginTopics;
+
+    @Override
+    public boolean filter(ConsumerRecord<String, String> record) {
+        if (ownOriginTopics.contains(record.topic())
+                && kafkaRouting.getOrganizationId().equals(KafkaRouting.header(record, KafkaRouting.ORIGIN_ORG_HEADER))) {
+            return discard(record, "own-organization");
+        }
+        if (kafkaRouting.isRoutedTopic(record.topic()) && !kafkaRouting.isForUs(record)) {
+            return discard(record, "other-organization");
+        }
+        String type = KafkaRouting.header(record, KafkaRouting.MESSAGE_TYPE_HEADER);
+        if (type != null && ignoredTypes.contains(type)) {
+            return discard(record, "ignored-type");
+        }
+        return false;
+    }
+
+    private boolean discard(ConsumerRecord<String, String> record, String reason) {
+        counters.computeIfAbsent(record.topic() + '|' + reason, k -> Counter.builder("empuje.kafka.records.filtered")
+                .tag("topic", record.topic())
+                .tag("reason", reason)
+                .register(meterRegistry)).increment();
+        return true;
+    }
+}
@@ -0,0 +1,35 @@
+package com.empuje.messaging.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Qué organizaciones saben leer el formato binario. Se aprende de los mensajes que llegan:
+ * quien ya migró publica con el header {@link WireFormat#ACCEPT_HEADER}; además se pueden
+ * declarar de antemano en {@code empuje.wire.binary-partners}. Mientras no se sepa nada de
+ * una organización, se le escribe en JSON.
+ */
+@Component
+public class PartnerFormats {
+
+    private final Set<String> binaryPartners = ConcurrentHashMap.newKeySet();
+
+    public PartnerFormats(@Value("${empuje.organization-id:empuje-org-001}") String organizationId,
+                          @Value("${empuje.wire.binary-partners:}") Set<String> configured) {
+        binaryPartners.add(organizationId);
+        binaryPartners.addAll(configured);
+    }
+
+    public boolean acceptsBinary(String organizationId) {
+        return organizationId != null && binaryPartners.contains(organizationId);
+    }
+
+    void observe(String organizationId, String accept) {
+        if (organizationId != null && accept != null && accept.contains(WireFormat.AVRO)) {
+            binaryPartners.add(organizationId);
+        }
+    }
+}
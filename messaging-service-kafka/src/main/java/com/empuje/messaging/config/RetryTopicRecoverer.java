@@ -0,0 +1,63 @@
+package com.empuje.messaging.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Saca de la partición un registro que falló y lo publica en el siguiente tópico de
+ * reintento o en el DLT (ver {@link KafkaRetryTopics}). El envío es sincrónico: el offset
+ * del registro original solo se confirma cuando la copia quedó guardada.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RetryTopicRecoverer implements ConsumerRecordRecoverer {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaRetryTopics retryTopics;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void accept(ConsumerRecord<?, ?> record, Exception exception) {
+        Throwable cause = unwrap(exception);
+        ProducerRecord<String, String> next = retryTopics.nextDestination(
+                (ConsumerRecord<String, String>) record, cause, isRetryable(cause));
+        try {
+            kafkaTemplate.send(next).get(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrumpido publicando en " + next.topic(), e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("No se pudo publicar en " + next.topic(), e);
+        }
+        log.warn("Registro {}-{}@{} enviado a {}: {}",
+                record.topic(), record.partition(), record.offset(), next.topic(), cause.getMessage());
+    }
+
+    /** Un payload que no se puede leer va a fallar siempre igual. */
+    private static boolean isRetryable(Throwable cause) {
+        return !(cause instanceof JsonProcessingException || cause instanceof DeserializationException);
+    }
+
+    private static Throwable unwrap(Throwable exception) {
+        Throwable cause = exception;
+        while ((cause instanceof ListenerExecutionFailedException || cause instanceof BatchListenerFailedException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
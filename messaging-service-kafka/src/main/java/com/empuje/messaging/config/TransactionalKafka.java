@@ -0,0 +1,51 @@
+package com.empuje.messaging.config;
+
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Productor transaccional para consumir-transformar-producir (ver DonationTransferConsumer):
+ * lo que se envía y los offsets del lote consumido se confirman juntos o no se confirman.
+ *
+ * El template y el transaction manager no se registran como beans: un segundo KafkaTemplate
+ * haría ambiguas las inyecciones existentes, y un segundo TransactionManager desactivaría
+ * el de JPA que configura Spring Boot. Con {@code empuje.kafka.transfers.transactional} en
+ * false el template es uno común y no hay transaction manager.
+ */
+@Getter
+@Component
+public class TransactionalKafka {
+
+    private final boolean enabled;
+    private final DefaultKafkaProducerFactory<String, String> producerFactory;
+    private final KafkaTemplate<String, String> template;
+    private final KafkaTransactionManager<String, String> transactionManager;
+
+    public TransactionalKafka(@Value("${spring.kafka.bootstrap-servers:kafka:29092}") String bootstrapServers,
+                              @Value("${empuje.kafka.producer.profile:throughput}") String producerProfile,
+                              @Value("${empuje.kafka.transfers.transactional:true}") boolean enabled,
+                              @Value("${empuje.kafka.transfers.transactional-id-prefix:empuje-transfers-}") String transactionalIdPrefix,
+                              WireFormatSerializer valueSerializer) {
+        this.enabled = enabled;
+        this.producerFactory = new DefaultKafkaProducerFactory<>(
+                KafkaConfig.producerProperties(bootstrapServers, ProducerProfile.of(producerProfile)),
+                new StringSerializer(), valueSerializer);
+        if (enabled) {
+            // transactional.id = prefijo + n por hilo consumidor; tiene que ser único por instancia
+            producerFactory.setTransactionIdPrefix(transactionalIdPrefix);
+        }
+        this.template = new KafkaTemplate<>(producerFactory);
+        this.transactionManager = enabled ? new KafkaTransactionManager<>(producerFactory) : null;
+    }
+
+    @PreDestroy
+    void close() {
+        producerFactory.destroy();
+    }
+}
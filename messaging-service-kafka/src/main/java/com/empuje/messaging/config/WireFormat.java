@@ -0,0 +1,46 @@
+package com.empuje.messaging.config;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Headers con los que se negocia el formato del payload. Un registro sin
+ * {@link #CONTENT_TYPE_HEADER} es JSON, que es lo que publican las organizaciones que
+ * todavía no migraron.
+ */
+public final class WireFormat {
+
+    /** Formato del payload: {@code json} o {@code avro;schema=<id>}. */
+    public static final String CONTENT_TYPE_HEADER = "empuje-content-type";
+    /** Formatos que sabe leer quien publicó el registro. */
+    public static final String ACCEPT_HEADER = "empuje-accept";
+
+    public static final String JSON = "json";
+    public static final String AVRO = "avro";
+    static final String AVRO_PREFIX = AVRO + ";schema=";
+    static final String ACCEPTED = AVRO + "," + JSON;
+
+    private WireFormat() {
+    }
+
+    static String avro(String schemaId) {
+        return AVRO_PREFIX + schemaId;
+    }
+
+    /** Id del esquema si el content type es Avro; null si es JSON. */
+    static String schemaId(String contentType) {
+        return contentType != null && contentType.startsWith(AVRO_PREFIX) ? contentType.substring(AVRO_PREFIX.length()) : null;
+    }
+
+    static String lastHeader(Headers headers, String name) {
+        Header header = headers == null ? null : headers.lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+
+    static void setHeader(Headers headers, String name, String value) {
+        headers.remove(name);
+        headers.add(name, value.getBytes(StandardCharsets.UTF_8));
+    }
+}
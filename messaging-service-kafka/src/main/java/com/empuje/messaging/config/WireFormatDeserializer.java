@@ -0,0 +1,72 @@
+package com.empuje.messaging.config;
+
+import org.apache.avro.Schema;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Deserializador de valores del consumidor: devuelve siempre JSON, así el resto de la
+ * aplicación no distingue formatos. Los registros Avro se transcodifican con el esquema
+ * que indica su header; los que no lo traen son JSON de organizaciones que no migraron.
+ * De paso registra qué formatos acepta cada organización (ver PartnerFormats).
+ */
+@Component
+public class WireFormatDeserializer implements Deserializer<String> {
+
+    private final LocalSchemaRegistry schemas;
+    private final PartnerFormats partners;
+    private final String organizationId;
+    private final AvroJsonTranscoder transcoder = new AvroJsonTranscoder();
+
+    public WireFormatDeserializer(LocalSchemaRegistry schemas,
+                                  PartnerFormats partners,
+                                  @Value("${empuje.organization-id:empuje-org-001}") String organizationId) {
+        this.schemas = schemas;
+        this.partners = partners;
+        this.organizationId = organizationId;
+    }
+
+    @Override
+    public String deserialize(String topic, byte[] data) {
+        return data == null ? null : new String(data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Un payload Avro con esquema desconocido o que no se puede leer lanza
+     * SerializationException: el ErrorHandlingDeserializer que envuelve a este (ver
+     * KafkaConfig) la deja en un header y KafkaBatchProcessor manda el registro al DLT, en
+     * lugar de perderlo. Los dirigidos a otra organización no se transcodifican:
+     * OrganizationRecordFilter los descarta por header de todos modos.
+     */
+    @Override
+    public String deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        partners.observe(WireFormat.lastHeader(headers, KafkaRouting.ORIGIN_ORG_HEADER),
+                WireFormat.lastHeader(headers, WireFormat.ACCEPT_HEADER));
+
+        String schemaId = WireFormat.schemaId(WireFormat.lastHeader(headers, WireFormat.CONTENT_TYPE_HEADER));
+        if (schemaId == null) {
+            return deserialize(topic, data);
+        }
+        String target = WireFormat.lastHeader(headers, KafkaRouting.TARGET_ORG_HEADER);
+        if (target != null && !target.equals(organizationId)) {
+            return null;
+        }
+        Schema schema = schemas.get(schemaId);
+        if (schema == null) {
+            throw new SerializationException("Registro de " + topic + " con esquema desconocido " + schemaId);
+        }
+        try {
+            return transcoder.toJson(data, schema);
+        } catch (Exception e) {
+            throw new SerializationException("Registro de " + topic + " ilegible con el esquema " + schemaId, e);
+        }
+    }
+}
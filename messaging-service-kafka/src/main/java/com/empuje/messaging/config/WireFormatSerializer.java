@@ -0,0 +1,76 @@
+package com.empuje.messaging.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serializador de valores del productor. La aplicación sigue armando los mensajes en JSON
+ * (outbox, reintentos y DLT incluidos); acá, si el registro tiene un tipo con esquema y el
+ * destino sabe leer Avro, el JSON se transcodifica a Avro binario (ver AvroJsonTranscoder).
+ * El formato elegido queda en {@link WireFormat#CONTENT_TYPE_HEADER} y siempre se anuncia
+ * {@link WireFormat#ACCEPT_HEADER}, que es como los demás aprenden que pueden escribirnos
+ * en binario.
+ *
+ * Los mensajes dirigidos a una organización van en binario si esa organización lo acepta;
+ * los de difusión, que lee cualquiera, solo si {@code empuje.wire.binary-broadcast} está
+ * activo (cuando ya migraron todas).
+ */
+@Slf4j
+@Component
+public class WireFormatSerializer implements Serializer<String> {
+
+    private final LocalSchemaRegistry schemas;
+    private final PartnerFormats partners;
+    private final boolean binaryEnabled;
+    private final boolean binaryBroadcast;
+    private final AvroJsonTranscoder transcoder = new AvroJsonTranscoder();
+
+    public WireFormatSerializer(LocalSchemaRegistry schemas,
+                                PartnerFormats partners,
+                                @Value("${empuje.wire.binary-enabled:true}") boolean binaryEnabled,
+                                @Value("${empuje.wire.binary-broadcast:false}") boolean binaryBroadcast) {
+        this.schemas = schemas;
+        this.partners = partners;
+        this.binaryEnabled = binaryEnabled;
+        this.binaryBroadcast = binaryBroadcast;
+    }
+
+    @Override
+    public byte[] serialize(String topic, String data) {
+        return data == null ? null : data.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, String data) {
+        String type = WireFormat.lastHeader(headers, KafkaRouting.MESSAGE_TYPE_HEADER);
+        if (data == null || type == null) {
+            return serialize(topic, data);
+        }
+        WireFormat.setHeader(headers, WireFormat.ACCEPT_HEADER, WireFormat.ACCEPTED);
+
+        String schemaId = binaryEnabled && wantsBinary(headers) ? schemas.latestId(type) : null;
+        if (schemaId != null) {
+            try {
+                byte[] avro = transcoder.toAvro(data, schemas.get(schemaId));
+                WireFormat.setHeader(headers, WireFormat.CONTENT_TYPE_HEADER, WireFormat.avro(schemaId));
+                return avro;
+            } catch (IOException | RuntimeException e) {
+                log.warn("No se pudo codificar {} con el esquema {}, se envía en JSON: {}", type, schemaId, e.getMessage());
+            }
+        }
+        WireFormat.setHeader(headers, WireFormat.CONTENT_TYPE_HEADER, WireFormat.JSON);
+        return serialize(topic, data);
+    }
+
+    private boolean wantsBinary(Headers headers) {
+        String target = WireFormat.lastHeader(headers, KafkaRouting.TARGET_ORG_HEADER);
+        return target != null ? partners.acceptsBinary(target) : binaryBroadcast;
+    }
+
+}
@@ -1,45 +1,42 @@
 package com.empuje.messaging.consumer;
 
 import com.empuje.messaging.model.DonationOfferMessage;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.empuje.messaging.service.DemandWindows;
+import com.empuje.messaging.service.MatchingService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DonationOfferConsumer {
 
-    private final ObjectMapper objectMapper;
+    private final KafkaBatchProcessor batchProcessor;
+    private final MatchingService matching;
+    private final DemandWindows demand;
 
     @KafkaListener(topics = "oferta-donaciones", groupId = "empuje-messaging-group")
-    public void consumeDonationOffer(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-
-        try {
-            DonationOfferMessage offerMessage = objectMapper.readValue(message, DonationOfferMessage.class);
-
-            log.info("Procesando oferta de donación recibida:");
-            log.info("Oferta ID: {}", offerMessage.getOfferId());
-            log.info("Organización donante: {}", offerMessage.getDonorOrganizationId());
-            log.info("Donación: {} - {} ({})",
-                   offerMessage.getDonationCategory(),
-                   offerMessage.getDonationDescription(),
-                   offerMessage.getQuantity());
-
-            acknowledgment.acknowledge();
-            log.info("Oferta procesada exitosamente");
-
-        } catch (Exception e) {
-            log.error("Error procesando oferta: {}", e.getMessage());
-        }
+    public void consumeDonationOffers(List<ConsumerRecord<String, String>> records) {
+        int processed = batchProcessor.process(records, DonationOfferMessage.class,
+                m -> m.getDonorOrganizationId() + ":" + m.getOfferId(), (record, offerMessage) -> {
+            log.debug("Oferta {} de {}: {} - {} ({})",
+                    offerMessage.getOfferId(),
+                    offerMessage.getDonorOrganizationId(),
+                    offerMessage.getDonationCategory(),
+                    offerMessage.getDonationDescription(),
+                    offerMessage.getQuantity());
+            matching.onOffer(offerMessage);
+            demand.record(DemandWindows.Side.OFFERED, record.timestamp(),
+                    offerMessage.getDonorOrganizationId(), offerMessage.getDonationCategory());
+        });
+        matching.flush();
+        demand.flush();
+
+        log.info("Lote de ofertas procesado: {} de {} registros", processed, records.size());
     }
 }
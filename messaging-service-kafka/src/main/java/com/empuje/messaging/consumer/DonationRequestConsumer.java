@@ -1,42 +1,44 @@
 package com.empuje.messaging.consumer;
 
 import com.empuje.messaging.model.DonationRequestMessage;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.empuje.messaging.service.DemandWindows;
+import com.empuje.messaging.service.OpenRequestView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DonationRequestConsumer {
 
-    private final ObjectMapper objectMapper;
+    private final KafkaBatchProcessor batchProcessor;
+    private final OpenRequestView openRequests;
+    private final DemandWindows demand;
 
     @KafkaListener(topics = "solicitud-donaciones", groupId = "empuje-messaging-group")
-    public void consumeDonationRequest(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-
-        try {
-            DonationRequestMessage requestMessage = objectMapper.readValue(message, DonationRequestMessage.class);
-
-            log.info("Procesando solicitud de donación recibida:");
-            log.info("Organización solicitante: {}", requestMessage.getOrganizationId());
-            log.info("ID de solicitud: {}", requestMessage.getRequestId());
-            log.info("Número de items: {}", requestMessage.getDonations().size());
-
-            acknowledgment.acknowledge();
-            log.info("Solicitud de donación procesada exitosamente");
-
-        } catch (Exception e) {
-            log.error("Error procesando solicitud de donación: {}", e.getMessage());
-        }
+    public void consumeDonationRequests(List<ConsumerRecord<String, String>> records) {
+        int processed = batchProcessor.process(records, DonationRequestMessage.class,
+                m -> m.getOrganizationId() + ":" + m.getRequestId(), (record, requestMessage) -> {
+            log.debug("Solicitud {} de {}: {} items",
+                    requestMessage.getRequestId(),
+                    requestMessage.getOrganizationId(),
+                    requestMessage.getDonations() == null ? 0 : requestMessage.getDonations().size());
+            openRequests.open(requestMessage);
+            if (requestMessage.getDonations() != null) {
+                for (DonationRequestMessage.DonationItem item : requestMessage.getDonations()) {
+                    demand.record(DemandWindows.Side.REQUESTED, record.timestamp(),
+                            requestMessage.getOrganizationId(), item.getCategory());
+                }
+            }
+        });
+        openRequests.flush();
+        demand.flush();
+
+        log.info("Lote de solicitudes de donación procesado: {} de {} registros", processed, records.size());
     }
 }
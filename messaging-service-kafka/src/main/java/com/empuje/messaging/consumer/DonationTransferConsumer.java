@@ -1,62 +1,140 @@
 package com.empuje.messaging.consumer;
 
+import com.empuje.messaging.config.KafkaRouting;
+import com.empuje.messaging.config.TransactionalKafka;
+import com.empuje.messaging.model.DonationTransferConfirmationMessage;
 import com.empuje.messaging.model.DonationTransferMessage;
+import com.empuje.messaging.service.TransferLedger;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Aplica al inventario las transferencias dirigidas a nosotros y le confirma cada una al
+ * donante en confirmacion-transferencia.
+ *
+ * Con {@code empuje.kafka.transfers.transactional} el contenedor abre una transacción de
+ * Kafka por lote: las confirmaciones y los offsets del lote se confirman juntos. El ajuste
+ * en inventory-service y el ledger no pueden entrar en esa transacción, así que son
+ * idempotentes (TransferLedger): si se ajustó y Kafka no confirmó, el lote se vuelve a
+ * entregar, el ajuste no se repite y las confirmaciones se vuelven a enviar. Una sola transacción por poll mantiene el costo
+ * cerca del modo sin transacciones.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DonationTransferConsumer {
 
+    private final KafkaBatchProcessor batchProcessor;
+    private final KafkaRouting kafkaRouting;
+    private final TransferLedger ledger;
+    private final TransactionalKafka transactionalKafka;
     private final ObjectMapper objectMapper;
 
-    @KafkaListener(topicPattern = "transferencia-donaciones/.*", groupId = "empuje-messaging-group")
-    public void consumeDonationTransfer(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
-            Acknowledgment acknowledgment) {
-
+    @KafkaListener(topics = KafkaRouting.TRANSFER_TOPIC, groupId = "empuje-messaging-group",
+                   containerFactory = "transferListenerContainerFactory")
+    public void consumeDonationTransfers(List<ConsumerRecord<String, String>> records) {
+        List<TransferLedger.Received> transfers = new ArrayList<>();
+        int processed;
         try {
-            DonationTransferMessage transferMessage = objectMapper.readValue(message, DonationTransferMessage.class);
-
-            log.info("Procesando transferencia recibida:");
-            log.info("Request ID: {}", transferMessage.getRequestId());
-            log.info("Organización donante: {}", transferMessage.getDonorOrganizationId());
-            log.info("Donación: {} - {} ({})",
-                   transferMessage.getDonationCategory(),
-                   transferMessage.getDonationDescription(),
-                   transferMessage.getQuantity());
+            // lo dirigido a otras organizaciones ya lo descartó OrganizationRecordFilter;
+            // el ledger reemplaza a la deduplicación: sabe además si hay que reenviar la confirmación
+            processed = batchProcessor.process(records, DonationTransferMessage.class, (record, transferMessage) -> {
+                log.debug("Transferencia {} desde {} en tópico {}",
+                        transferMessage.getRequestId(), transferMessage.getDonorOrganizationId(), record.topic());
+                transfers.add(new TransferLedger.Received(transferId(transferMessage), source(record), transferMessage));
+            });
+        } catch (BatchListenerFailedException e) {
+            // transfers tiene solo los registros anteriores al que falló: esos se aplican y se
+            // confirman; el error handler corre dentro de la misma transacción, así que sus
+            // confirmaciones salen junto con los offsets que él confirma (si el handler falla, se
+            // revierte todo, el lote vuelve y el ledger reenvía las confirmaciones)
+            confirmPrefix(transfers, e);
+            throw e;
+        }
+        confirm(ledger.apply(transfers));
 
-            processInventoryAdjustment(transferMessage);
+        log.info("Lote de transferencias procesado: {} de {} registros", processed, records.size());
+    }
 
-            acknowledgment.acknowledge();
-            log.info("Transferencia procesada exitosamente");
+    /**
+     * Una solicitud puede recibir varias transferencias, incluso del mismo donante: la
+     * identidad de cada una incluye el momento en que se publicó.
+     */
+    private static String transferId(DonationTransferMessage message) {
+        return message.getRequestId() + ":" + message.getDonorOrganizationId() + ":" + message.getTimestamp();
+    }
 
-        } catch (Exception e) {
-            log.error("Error procesando transferencia: {}", e.getMessage());
-        }
+    /** Los reintentos conservan tópico, partición y offset originales (ver KafkaRetryTopics.asOriginal). */
+    private static String source(ConsumerRecord<String, String> record) {
+        return record.topic() + "-" + record.partition() + "@" + record.offset();
     }
 
-    private void processInventoryAdjustment(DonationTransferMessage transferMessage) {
+    /**
+     * Si las confirmaciones del prefijo tampoco salen, el lote entero tiene que volver:
+     * se relanza ese error (no un BatchListenerFailedException, que confirmaría los offsets
+     * del prefijo) con el fallo original como suprimido.
+     */
+    private void confirmPrefix(List<TransferLedger.Received> transfers, BatchListenerFailedException failure) {
         try {
-            log.info("Procesando ajuste de inventario para transferencia:");
-            log.info("Categoría: {}", transferMessage.getDonationCategory());
-            log.info("Descripción: {}", transferMessage.getDonationDescription());
-            log.info("Cantidad: {}", transferMessage.getQuantity());
+            confirm(ledger.apply(transfers));
+        } catch (RuntimeException e) {
+            e.addSuppressed(failure);
+            throw e;
+        }
+    }
 
-            log.info("Ajuste de inventario completado exitosamente");
+    private void confirm(List<TransferLedger.Outcome> outcomes) {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+        List<ProducerRecord<String, String>> confirmations = new ArrayList<>(outcomes.size());
+        for (TransferLedger.Outcome outcome : outcomes) {
+            confirmations.add(confirmation(outcome));
+        }
+        KafkaTemplate<String, String> template = transactionalKafka.getTemplate();
+        if (!transactionalKafka.isEnabled()) {
+            confirmations.forEach(template::send);
+            template.flush();
+        } else if (template.inTransaction()) {
+            confirmations.forEach(template::send);
+        } else {
+            // reintentos: su contenedor no es transaccional, la confirmación va en una transacción propia
+            template.executeInTransaction(t -> {
+                confirmations.forEach(t::send);
+                return null;
+            });
+        }
+        log.debug("Confirmaciones de transferencia enviadas: {}", confirmations.size());
+    }
 
-        } catch (Exception e) {
-            log.error("Error ajustando inventario: {}", e.getMessage());
-            throw new RuntimeException("Error en ajuste de inventario", e);
+    private ProducerRecord<String, String> confirmation(TransferLedger.Outcome outcome) {
+        DonationTransferMessage transfer = outcome.message();
+        DonationTransferConfirmationMessage message = DonationTransferConfirmationMessage.builder()
+                .requestId(transfer.getRequestId())
+                .donorOrganizationId(transfer.getDonorOrganizationId())
+                .receiverOrganizationId(kafkaRouting.getOrganizationId())
+                .transferTimestamp(transfer.getTimestamp())
+                .status(outcome.status())
+                .timestamp(LocalDateTime.now().toString())
+                .build();
+        try {
+            return kafkaRouting.toOrganization(KafkaRouting.CONFIRMATION_TOPIC, transfer.getDonorOrganizationId(),
+                    objectMapper.writeValueAsString(message), DonationTransferConfirmationMessage.class.getSimpleName(),
+                    kafkaRouting.getOrganizationId());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Confirmación de transferencia no serializable", e);
         }
     }
 }
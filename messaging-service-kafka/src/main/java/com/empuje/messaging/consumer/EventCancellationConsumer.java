@@ -1,46 +1,51 @@
 package com.empuje.messaging.consumer;
 
 import com.empuje.messaging.model.EventCancellationMessage;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.empuje.messaging.model.ExternalEvent;
+import com.empuje.messaging.service.EventCancellationIndex;
+import com.empuje.messaging.service.ExternalEventCatalog;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EventCancellationConsumer {
 
-    private final ObjectMapper objectMapper;
+    private final KafkaBatchProcessor batchProcessor;
+    private final EventCancellationIndex cancellations;
+    private final ExternalEventCatalog catalog;
 
     @KafkaListener(topics = "baja-evento-solidario", groupId = "empuje-messaging-group")
-    public void consumeEventCancellation(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-
+    public void consumeEventCancellations(List<ConsumerRecord<String, String>> records) {
+        List<ExternalEvent.Key> cancelled = new ArrayList<>();
+        int processed;
         try {
-            EventCancellationMessage cancellationMessage = objectMapper.readValue(message, EventCancellationMessage.class);
-
-            log.info("Procesando baja de evento:");
-            log.info("Organización: {}", cancellationMessage.getOrganizationId());
-            log.info("Evento ID: {}", cancellationMessage.getEventId());
-
-            // Aquí iría la lógica para:
-            // 1. Marcar el evento como cancelado en nuestra base de datos
-            // 2. Remover el evento de la lista de eventos externos disponibles
-            // 3. Cancelar cualquier adhesión pendiente relacionada
-
-            acknowledgment.acknowledge();
-            log.info("Baja de evento procesada exitosamente");
-
-        } catch (Exception e) {
-            log.error("Error procesando baja de evento: {}", e.getMessage());
+            processed = batchProcessor.process(records, EventCancellationMessage.class,
+                    m -> m.getOrganizationId() + ":" + m.getEventId(), (record, cancellationMessage) -> {
+                log.debug("Baja de evento {} de {}",
+                        cancellationMessage.getEventId(), cancellationMessage.getOrganizationId());
+
+                if (cancellations.cancel(cancellationMessage.getOrganizationId(), cancellationMessage.getEventId())) {
+                    cancelled.add(new ExternalEvent.Key(cancellationMessage.getOrganizationId(), cancellationMessage.getEventId()));
+                }
+            });
+        } finally {
+            // también si el lote se corta: el error handler confirma los registros anteriores
+            try {
+                cancellations.flush();
+            } finally {
+                catalog.remove(cancelled);
+            }
         }
+
+        log.info("Lote de bajas de evento procesado: {} de {} registros ({} eventos borrados del catálogo)",
+                processed, records.size(), cancelled.size());
     }
 }
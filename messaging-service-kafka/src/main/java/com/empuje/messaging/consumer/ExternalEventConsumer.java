@@ -1,99 +1,130 @@
 package com.empuje.messaging.consumer;
 
+import com.empuje.messaging.config.KafkaRouting;
+import com.empuje.messaging.model.ExternalEvent;
 import com.empuje.messaging.model.ExternalEventMessage;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.empuje.messaging.service.EventCancellationIndex;
+import com.empuje.messaging.service.ExternalEventCatalog;
+import com.empuje.messaging.service.ExternalEventCatchUp;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerSeekAware;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Guarda los eventos de otras organizaciones en el catálogo. Los offsets se confirman
+ * cuando el catálogo escribe, no al terminar el lote; como el upsert por evento es
+ * idempotente, una re-entrega no necesita deduplicación.
+ *
+ * eventos-solidarios es compactado por organización|evento: un tombstone es la baja del
+ * evento, igual que un mensaje en baja-evento-solidario.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class ExternalEventConsumer {
-
-    private final ObjectMapper objectMapper;
+public class ExternalEventConsumer implements ConsumerSeekAware {
+
+    private final KafkaBatchProcessor batchProcessor;
+    private final KafkaRouting kafkaRouting;
+    private final ExternalEventCatalog catalog;
+    private final EventCancellationIndex cancellations;
+    private final ExternalEventCatchUp catchUp;
+
+    @KafkaListener(id = ExternalEventCatalog.LISTENER_ID, topics = "eventos-solidarios", groupId = "empuje-messaging-group",
+                   containerFactory = "writeBehindListenerContainerFactory")
+    public void consumeExternalEvents(List<ConsumerRecord<String, String>> records, Acknowledgment acknowledgment,
+                                      Consumer<?, ?> consumer) {
+        removeTombstoned(records);
+        int processed;
+        try {
+            processed = batchProcessor.process(records, ExternalEventMessage.class, (record, eventMessage) -> {
+                // Los eventos propios con headers ya los descartó OrganizationRecordFilter;
+                // esto cubre los publicados sin headers
+                if (isOurOwnEvent(eventMessage)) {
+                    log.debug("Evento propio descartado: {}", eventMessage.getEventId());
+                    return;
+                }
+
+                // Validación: que el evento no esté dado de baja (índice en memoria)
+                if (!isEventValid(eventMessage)) {
+                    log.debug("Evento dado de baja descartado: {}", eventMessage.getEventId());
+                    return;
+                }
+
+                // Procesar evento externo válido
+                processValidExternalEvent(eventMessage);
+            });
+        } catch (BatchListenerFailedException e) {
+            // el error handler confirma los registros anteriores al que falló: primero se escriben
+            catalog.flush();
+            throw e;
+        }
+        catalog.commitAfterFlush(acknowledgment);
+        if (consumer != null) {
+            catchUp.check(consumer);
+        }
 
-    @KafkaListener(topics = "eventos-solidarios", groupId = "empuje-messaging-group")
-    public void consumeExternalEvent(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
+        log.info("Lote de eventos externos procesado: {} de {} registros", processed, records.size());
+    }
 
-        try {
-            ExternalEventMessage eventMessage = objectMapper.readValue(message, ExternalEventMessage.class);
+    /** Reintentos: se escribe antes de volver, porque quien llama confirma al terminar. */
+    public void consumeExternalEvents(List<ConsumerRecord<String, String>> records) {
+        consumeExternalEvents(records, null, null);
+    }
 
-            log.info("Procesando evento externo recibido:");
-            log.info("Evento ID: {}", eventMessage.getEventId());
-            log.info("Organización: {}", eventMessage.getOrganizationId());
-            log.info("Nombre: {}", eventMessage.getEventName());
-            log.info("Fecha: {}", eventMessage.getEventDateTime());
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        catchUp.onAssigned(assignments.keySet());
+    }
 
-            // Validación: descartar eventos propios
-            if (isOurOwnEvent(eventMessage)) {
-                log.info("Evento propio descartado: {}", eventMessage.getEventId());
-                acknowledgment.acknowledge();
-                return;
+    /** Da de baja los eventos con tombstone en el lote y los saca del catálogo. */
+    private void removeTombstoned(List<ConsumerRecord<String, String>> records) {
+        List<ExternalEvent.Key> removed = new ArrayList<>();
+        for (ConsumerRecord<String, String> record : records) {
+            // las claves viejas (solo la organización) no identifican un evento
+            int separator = record.value() == null && record.key() != null ? record.key().indexOf('|') : -1;
+            if (separator > 0) {
+                String organizationId = record.key().substring(0, separator);
+                String eventId = record.key().substring(separator + 1);
+                if (cancellations.cancel(organizationId, eventId)) {
+                    removed.add(new ExternalEvent.Key(organizationId, eventId));
+                }
             }
-
-            // Validación: verificar que el evento esté vigente
-            if (!isEventValid(eventMessage)) {
-                log.info("Evento no válido o dado de baja descartado: {}", eventMessage.getEventId());
-                acknowledgment.acknowledge();
-                return;
+        }
+        if (!removed.isEmpty()) {
+            try {
+                cancellations.flush();
+            } finally {
+                catalog.remove(removed);
             }
-
-            // Procesar evento externo válido
-            processValidExternalEvent(eventMessage);
-
-            acknowledgment.acknowledge();
-            log.info("Evento externo procesado exitosamente");
-
-        } catch (Exception e) {
-            log.error("Error procesando evento externo: {}", e.getMessage());
+            log.debug("Eventos externos borrados por tombstone: {}", removed.size());
         }
     }
 
     private boolean isOurOwnEvent(ExternalEventMessage eventMessage) {
-        // ID de nuestra organización para filtrar eventos propios
-        String OUR_ORGANIZATION_ID = "empuje-org-001";
-        return OUR_ORGANIZATION_ID.equals(eventMessage.getOrganizationId());
+        return kafkaRouting.getOrganizationId().equals(eventMessage.getOrganizationId());
     }
 
     private boolean isEventValid(ExternalEventMessage eventMessage) {
-        // Aquí se verificaría contra la base de datos si el evento está vigente
-        // Por ejemplo, consultar si existe una baja para este evento
-
-        // Para demostración, asumimos que todos los eventos son válidos
-        // excepto si están marcados como cancelados
-
-        return true; // TODO: Implementar lógica real de validación
+        return !cancellations.isCancelled(eventMessage.getOrganizationId(), eventMessage.getEventId());
     }
 
     private void processValidExternalEvent(ExternalEventMessage eventMessage) {
-        log.info("Procesando evento externo válido:");
-        log.info("Nombre: {}", eventMessage.getEventName());
-        log.info("Descripción: {}", eventMessage.getDescription());
-        log.info("Fecha: {}", eventMessage.getEventDateTime());
-
-        // Aquí iría la lógica para:
-        // 1. Guardar el evento en la tabla de eventos externos
-        // 2. Mostrar en la interfaz de eventos externos
-        // 3. Permitir adhesión de voluntarios
-
-        log.info("Evento externo guardado exitosamente");
-    }
-}
-
-            acknowledgment.acknowledge();
-            log.info("Evento externo procesado exitosamente");
-
-        } catch (Exception e) {
-            log.error("Error procesando evento externo: {}", e.getMessage());
-        }
+        log.debug("Evento externo {} de {}: {} ({})",
+                eventMessage.getEventId(),
+                eventMessage.getOrganizationId(),
+                eventMessage.getEventName(),
+                eventMessage.getEventDateTime());
+        catalog.stage(eventMessage);
     }
 }
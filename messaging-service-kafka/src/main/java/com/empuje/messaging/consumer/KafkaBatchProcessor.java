@@ -0,0 +1,143 @@
+package com.empuje.messaging.consumer;
+
+import com.empuje.messaging.service.MessageDeduplicator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.core.log.LogAccessor;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ListenerUtils;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Procesa un lote de registros como una unidad: primero deserializa todos los mensajes y
+ * después los entrega en orden al handler. Si un registro no se puede deserializar o el
+ * handler falla, se informa con BatchListenerFailedException al llegar a ese registro, así
+ * el error handler del contenedor confirma los anteriores y deriva solo a ese registro a
+ * los tópicos de reintento (o directo al DLT si el payload es inválido).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class KafkaBatchProcessor {
+
+    private static final LogAccessor LOGGER = new LogAccessor(KafkaBatchProcessor.class);
+
+    private final ObjectMapper objectMapper;
+    private final MessageDeduplicator deduplicator;
+
+    @FunctionalInterface
+    public interface RecordHandler<T> {
+        void handle(ConsumerRecord<String, String> record, T message) throws Exception;
+    }
+
+    /**
+     * @return cantidad de registros procesados (sin contar los que no tienen payload)
+     * @throws BatchListenerFailedException si algún registro no se puede leer o procesar
+     */
+    public <T> int process(List<ConsumerRecord<String, String>> records, Class<T> type, RecordHandler<T> handler) {
+        return process(records, type, null, handler);
+    }
+
+    /**
+     * Como {@link #process(List, Class, RecordHandler)}, pero saltea los mensajes que ya se
+     * procesaron antes, identificados por tipo más {@code messageId}. Las claves de los
+     * procesados se registran al final, también si el lote se corta por un error.
+     */
+    public <T> int process(List<ConsumerRecord<String, String>> records, Class<T> type,
+                           Function<T, String> messageId, RecordHandler<T> handler) {
+        List<Object> messages = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            messages.add(deserialize(record, type));
+        }
+
+        String[] keys = new String[records.size()];
+        Set<String> alreadyProcessed = Set.of();
+        if (messageId != null) {
+            for (int i = 0; i < keys.length; i++) {
+                String id = type.isInstance(messages.get(i)) ? messageId.apply(type.cast(messages.get(i))) : null;
+                if (id != null) {
+                    keys[i] = type.getSimpleName() + ":" + id;
+                }
+            }
+            alreadyProcessed = deduplicator.findProcessed(nonNull(keys));
+        }
+
+        Set<String> done = new HashSet<>();
+        int processed = 0;
+        try {
+            for (int i = 0; i < records.size(); i++) {
+                Object message = messages.get(i);
+                if (message == null) {
+                    continue;
+                }
+                if (message instanceof DeserializationException e) {
+                    throw new BatchListenerFailedException("Registro ilegible en " + records.get(i).topic(), e, records.get(i));
+                }
+                if (message instanceof JsonProcessingException e) {
+                    throw new BatchListenerFailedException("Mensaje inválido de tipo " + type.getSimpleName(), e, records.get(i));
+                }
+                if (keys[i] != null && (alreadyProcessed.contains(keys[i]) || done.contains(keys[i]))) {
+                    log.debug("Mensaje duplicado salteado: {}", keys[i]);
+                    continue;
+                }
+                try {
+                    handler.handle(records.get(i), type.cast(message));
+                    processed++;
+                } catch (Exception e) {
+                    throw new BatchListenerFailedException("Error procesando " + type.getSimpleName(), e, records.get(i));
+                }
+                if (keys[i] != null) {
+                    done.add(keys[i]);
+                }
+            }
+        } finally {
+            markProcessed(done);
+        }
+        return processed;
+    }
+
+    private void markProcessed(Set<String> keys) {
+        try {
+            deduplicator.markProcessed(keys);
+        } catch (Exception e) {
+            // sin registro, una re-entrega volvería a procesarlos: at-least-once, como antes
+            log.error("No se pudieron registrar {} mensajes procesados: {}", keys.size(), e.getMessage());
+        }
+    }
+
+    private static List<String> nonNull(String[] keys) {
+        List<String> list = new ArrayList<>(keys.length);
+        for (String key : keys) {
+            if (key != null) {
+                list.add(key);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * El mensaje, null si el registro no tiene payload, o la excepción si no se pudo leer:
+     * la de Jackson, o la que WireFormatDeserializer dejó en un header.
+     */
+    private Object deserialize(ConsumerRecord<String, String> record, Class<?> type) {
+        if (record.value() == null) {
+            return ListenerUtils.getExceptionFromHeader(record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, LOGGER);
+        }
+        try {
+            return objectMapper.readValue(record.value(), type);
+        } catch (JsonProcessingException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.empuje.messaging.consumer;
+
+import com.empuje.messaging.config.KafkaRouting;
+import com.empuje.messaging.model.DonationTransferMessage;
+import com.empuje.messaging.model.EventParticipationMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Puente de migración: mientras otras organizaciones sigan publicando en los tópicos por
+ * organización, reenvía lo que llega a los nuestros al tópico consolidado, con clave y
+ * header de ruteo. Se confirma el lote recién cuando todos los reenvíos fueron aceptados.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "empuje.kafka.routing.bridge-enabled", havingValue = "true")
+public class LegacyTopicBridge {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaRouting kafkaRouting;
+
+    @KafkaListener(topicPattern = "#{@kafkaRouting.legacyPattern}", groupId = "empuje-messaging-bridge")
+    public void bridge(List<ConsumerRecord<String, String>> records) {
+        List<CompletableFuture<?>> sends = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, String> record : records) {
+            boolean transfer = record.topic().startsWith(KafkaRouting.TRANSFER_TOPIC);
+            String topic = transfer ? KafkaRouting.TRANSFER_TOPIC : KafkaRouting.PARTICIPATION_TOPIC;
+            String type = transfer ? DonationTransferMessage.class.getSimpleName() : EventParticipationMessage.class.getSimpleName();
+            // el origen no viaja en los tópicos viejos; queda sin header de origen
+            sends.add(kafkaTemplate.send(kafkaRouting.toOrganization(topic, kafkaRouting.getOrganizationId(), record.value(), type, null)));
+        }
+        CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).join();
+        log.info("Bridge: {} mensajes reenviados desde tópicos por organización", records.size());
+    }
+}
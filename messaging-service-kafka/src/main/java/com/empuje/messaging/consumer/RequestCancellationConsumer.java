@@ -1,46 +1,37 @@
 package com.empuje.messaging.consumer;
 
 import com.empuje.messaging.model.RequestCancellationMessage;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.empuje.messaging.service.OpenRequestView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RequestCancellationConsumer {
 
-    private final ObjectMapper objectMapper;
+    private final KafkaBatchProcessor batchProcessor;
+    private final OpenRequestView openRequests;
 
     @KafkaListener(topics = "baja-solicitud-donaciones", groupId = "empuje-messaging-group")
-    public void consumeRequestCancellation(
-            @Payload String message,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-
-        try {
-            RequestCancellationMessage cancellationMessage = objectMapper.readValue(message, RequestCancellationMessage.class);
-
-            log.info("Procesando baja de solicitud:");
-            log.info("Organización: {}", cancellationMessage.getOrganizationId());
-            log.info("Solicitud ID: {}", cancellationMessage.getRequestId());
+    public void consumeRequestCancellations(List<ConsumerRecord<String, String>> records) {
+        int processed = batchProcessor.process(records, RequestCancellationMessage.class,
+                m -> m.getOrganizationId() + ":" + m.getRequestId(), (record, cancellationMessage) -> {
+            log.debug("Baja de solicitud {} de {}",
+                    cancellationMessage.getRequestId(), cancellationMessage.getOrganizationId());
+            openRequests.close(cancellationMessage.getOrganizationId(), cancellationMessage.getRequestId());
 
             // Aquí iría la lógica para:
             // 1. Marcar la solicitud como cancelada en nuestra base de datos
             // 2. Invalidar cualquier transferencia pendiente relacionada
-            // 3. Actualizar el estado de sincronización
-
-            acknowledgment.acknowledge();
-            log.info("Baja de solicitud procesada exitosamente");
+        });
+        openRequests.flush();
 
-        } catch (Exception e) {
-            log.error("Error procesando baja de solicitud: {}", e.getMessage());
-        }
+        log.info("Lote de bajas de solicitud procesado: {} de {} registros", processed, records.size());
     }
 }
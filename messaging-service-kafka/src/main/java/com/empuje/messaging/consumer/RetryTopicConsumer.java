@@ -0,0 +1,120 @@
+package com.empuje.messaging.consumer;
+
+import com.empuje.messaging.config.KafkaRetryTopics;
+import com.empuje.messaging.config.KafkaRouting;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Consume los tópicos de reintento. Cada nivel tiene una demora fija, así que los registros
+ * de una partición vencen en orden: si el primero todavía no venció, se vuelve a posicionar
+ * la partición en ese registro y se pausa solo esa partición hasta que venza; las demás
+ * (otros tópicos y niveles) siguen. No se usa nack(demora): con un listener por registro
+ * pausa todas las particiones del consumidor. Al vencer, el registro se entrega al mismo
+ * consumidor que lo procesa en el tópico original; si vuelve a fallar, el error handler lo
+ * pasa al nivel siguiente o al DLT.
+ */
+@Slf4j
+@Service
+public class RetryTopicConsumer implements ConsumerSeekAware {
+
+    public static final String LISTENER_ID = "retry-topics";
+
+    private final KafkaRetryTopics retryTopics;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final TaskScheduler scheduler;
+    private final Map<String, Consumer<List<ConsumerRecord<String, String>>>> handlers = new HashMap<>();
+    /** Particiones pausadas a la espera de su primer registro; lo que quedaba del poll se descarta. */
+    private final Set<TopicPartition> waiting = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<ConsumerSeekCallback> seekCallback = new ThreadLocal<>();
+
+    public RetryTopicConsumer(KafkaRetryTopics retryTopics,
+                              KafkaListenerEndpointRegistry listenerRegistry,
+                              TaskScheduler scheduler,
+                              DonationRequestConsumer donationRequestConsumer,
+                              DonationOfferConsumer donationOfferConsumer,
+                              DonationTransferConsumer donationTransferConsumer,
+                              EventParticipationConsumer eventParticipationConsumer,
+                              ExternalEventConsumer externalEventConsumer,
+                              RequestCancellationConsumer requestCancellationConsumer,
+                              EventCancellationConsumer eventCancellationConsumer) {
+        this.retryTopics = retryTopics;
+        this.listenerRegistry = listenerRegistry;
+        this.scheduler = scheduler;
+        handlers.put("solicitud-donaciones", donationRequestConsumer::consumeDonationRequests);
+        handlers.put("oferta-donaciones", donationOfferConsumer::consumeDonationOffers);
+        handlers.put(KafkaRouting.TRANSFER_TOPIC, donationTransferConsumer::consumeDonationTransfers);
+        handlers.put(KafkaRouting.PARTICIPATION_TOPIC, eventParticipationConsumer::consumeEventParticipations);
+        handlers.put("eventos-solidarios", externalEventConsumer::consumeExternalEvents);
+        handlers.put("baja-solicitud-donaciones", requestCancellationConsumer::consumeRequestCancellations);
+        handlers.put("baja-evento-solidario", eventCancellationConsumer::consumeEventCancellations);
+    }
+
+    @KafkaListener(id = LISTENER_ID, topics = "#{@kafkaRetryTopics.retryTopicNames}", groupId = "empuje-messaging-retry",
+                   containerFactory = "retryListenerContainerFactory")
+    public void consumeRetry(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+        if (waiting.contains(partition)) {
+            // ya se pidió volver a este offset o a uno anterior: se relee al reanudar
+            return;
+        }
+        long dueAt = KafkaRetryTopics.longHeader(record, KafkaRetryTopics.DUE_AT_HEADER).orElse(0L);
+        if (dueAt > System.currentTimeMillis()) {
+            waitFor(partition, record.offset(), dueAt);
+            return;
+        }
+
+        String originalTopic = retryTopics.originalTopic(record);
+        Consumer<List<ConsumerRecord<String, String>>> handler = handlers.get(originalTopic);
+        if (handler == null) {
+            throw new IllegalStateException("Sin consumidor para el tópico " + originalTopic);
+        }
+        handler.accept(List.of(retryTopics.asOriginal(record)));
+        acknowledgment.acknowledge();
+        log.info("Reintento {} de {} procesado",
+                KafkaRetryTopics.intHeader(record, KafkaRetryTopics.ATTEMPT_HEADER).orElse(0), originalTopic);
+    }
+
+    @Override
+    public void registerSeekCallback(ConsumerSeekCallback callback) {
+        seekCallback.set(callback);
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        // el próximo dueño arranca desde el offset confirmado, sin esperas pendientes
+        partitions.forEach(waiting::remove);
+    }
+
+    /**
+     * Vuelve a posicionar la partición en {@code offset} (el seek se aplica antes del próximo
+     * poll), la pausa y programa la reanudación para cuando venza el registro.
+     */
+    private void waitFor(TopicPartition partition, long offset, long dueAt) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        waiting.add(partition);
+        seekCallback.get().seek(partition.topic(), partition.partition(), offset);
+        container.pausePartition(partition);
+        scheduler.schedule(() -> {
+            waiting.remove(partition);
+            container.resumePartition(partition);
+        }, Instant.ofEpochMilli(dueAt));
+    }
+}
@@ -2,12 +2,23 @@ package com.empuje.messaging.controller;
 
 import com.empuje.messaging.model.*;
 import com.empuje.messaging.producer.*;
+import com.empuje.messaging.service.BatchPublishService;
+import com.empuje.messaging.service.DeadLetterService;
+import com.empuje.messaging.service.DemandWindows;
+import com.empuje.messaging.service.ExternalEventCatalog;
+import com.empuje.messaging.service.MatchingService;
+import com.empuje.messaging.service.OpenRequestView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Slf4j
@@ -21,6 +32,15 @@ public class MessagingController {
     private final DonationTransferProducer donationTransferProducer;
     private final DonationOfferProducer donationOfferProducer;
     private final ExternalEventProducer externalEventProducer;
+    private final DeadLetterService deadLetterService;
+    private final OpenRequestView openRequests;
+    private final MatchingService matching;
+    private final ExternalEventCatalog externalEvents;
+    private final DemandWindows demand;
+    private final BatchPublishService batchPublishService;
+
+    @Value("${empuje.batch.max-messages:1000}")
+    private int maxBatchMessages;
 
     @PostMapping("/solicitud-donaciones")
     public ResponseEntity<String> publicarSolicitudDonaciones(
@@ -144,6 +164,101 @@ public class MessagingController {
         }
     }
 
+    /**
+     * Publica varios mensajes de cualquier tipo. Responde cuando todos quedaron en el outbox,
+     * con un resultado por mensaje en el mismo orden.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchPublishResult>> publicarLote(@RequestBody List<BatchPublishItem> items) {
+        if (items.size() > maxBatchMessages) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(batchPublishService.publish(items));
+        } catch (Exception e) {
+            log.error("Error publicando lote de {} mensajes: {}", items.size(), e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /** Solicitudes externas vigentes, servidas desde la vista local (sin ir a Kafka). */
+    @GetMapping("/solicitudes-abiertas")
+    public ResponseEntity<List<DonationRequestMessage>> listarSolicitudesAbiertas(
+            @RequestParam(required = false) String organizationId,
+            @RequestParam(required = false) String category) {
+
+        return ResponseEntity.ok(openRequests.find(organizationId, category));
+    }
+
+    /** Próximos eventos de otras organizaciones, paginados por fecha desde el catálogo local. */
+    @GetMapping("/eventos-externos")
+    public ResponseEntity<Page<ExternalEvent>> listarEventosExternos(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        LocalDateTime from = desde != null ? desde : LocalDateTime.now();
+        return ResponseEntity.ok(externalEvents.upcoming(from, Math.max(page, 0), Math.min(Math.max(size, 1), 100)));
+    }
+
+    /** Últimas coincidencias entre ofertas y solicitudes abiertas. */
+    @GetMapping("/coincidencias")
+    public ResponseEntity<List<DonationMatchMessage>> listarCoincidencias(
+            @RequestParam(required = false) String organizationId,
+            @RequestParam(defaultValue = "50") int max) {
+
+        return ResponseEntity.ok(matching.recentMatches(organizationId, Math.min(max, 500)));
+    }
+
+    /**
+     * Demanda por categoría y organización en las ventanas más recientes, desde memoria.
+     * window: HOUR y DAY son fijas, LAST_24H son las últimas 24 horas, que avanzan de a una.
+     */
+    @GetMapping("/demanda")
+    public ResponseEntity<List<DemandWindow>> consultarDemanda(
+            @RequestParam(defaultValue = "HOUR") String window,
+            @RequestParam(defaultValue = "24") int max,
+            @RequestParam(required = false) String organizationId) {
+
+        DemandWindows.Window type;
+        try {
+            type = DemandWindows.Window.valueOf(window.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(demand.windows(type, Math.min(Math.max(max, 1), 168), organizationId));
+    }
+
+    @GetMapping("/dlt/{topic}")
+    public ResponseEntity<List<DeadLetterEntry>> listarDeadLetters(
+            @PathVariable String topic,
+            @RequestParam(defaultValue = "50") int max) {
+
+        try {
+            return ResponseEntity.ok(deadLetterService.list(topic, Math.min(max, 500)));
+        } catch (Exception e) {
+            log.error("Error leyendo DLT de {}: {}", topic, e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/dlt/{topic}/replay")
+    public ResponseEntity<String> reenviarDeadLetter(
+            @PathVariable String topic,
+            @RequestParam int partition,
+            @RequestParam long offset) {
+
+        try {
+            if (!deadLetterService.replay(topic, partition, offset)) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok("Mensaje reenviado a reintentos");
+        } catch (Exception e) {
+            log.error("Error reenviando {}-{}@{} del DLT: {}", topic, partition, offset, e.getMessage());
+            return ResponseEntity.internalServerError().body("Error reenviando mensaje");
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Servicio de mensajería Kafka funcionando correctamente");
@@ -0,0 +1,17 @@
+package com.empuje.messaging.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Un mensaje de POST /api/messaging/batch: el tópico de destino y el mensaje en JSON. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPublishItem {
+    private String topic;
+    /** Solo para transferencia-donaciones y adhesion-evento. */
+    private String targetOrganizationId;
+    private JsonNode message;
+}
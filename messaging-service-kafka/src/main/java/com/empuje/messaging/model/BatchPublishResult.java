@@ -0,0 +1,17 @@
+package com.empuje.messaging.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchPublishResult {
+    private int index;
+    private String topic;
+    private boolean accepted;
+    private String error;
+}
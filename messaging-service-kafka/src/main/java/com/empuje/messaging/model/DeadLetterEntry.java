@@ -0,0 +1,25 @@
+package com.empuje.messaging.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeadLetterEntry {
+    private int partition;
+    private long offset;
+    private String key;
+    private String value;
+    private String originalTopic;
+    private String exception;
+    private String exceptionMessage;
+    private String failedAt;
+    private int attempts;
+    private Map<String, String> headers;
+}
@@ -0,0 +1,30 @@
+package com.empuje.messaging.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/** Ítems pedidos y ofertas publicadas en la red durante una ventana de tiempo [start, end). */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DemandWindow {
+    private String window;
+    private Instant start;
+    private Instant end;
+    private Map<String, Count> byCategory;
+    private Map<String, Count> byOrganization;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Count {
+        private long requested;
+        private long offered;
+    }
+}
@@ -0,0 +1,22 @@
+package com.empuje.messaging.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonationMatchMessage {
+    private String requestId;
+    private String requestOrganizationId;
+    private String offerId;
+    private String donorOrganizationId;
+    private String category;
+    private String requestDescription;
+    private String offerDescription;
+    private double score;
+    private String timestamp;
+}
@@ -25,19 +25,20 @@ public class DonationRequestMessage {
 
     @JsonProperty("timestamp")
     private LocalDateTime timestamp;
-}
 
-@Data
-@Builder
-@NoArgsConstructor
-@AllArgsConstructor
-public class DonationItem {
-    @JsonProperty("category")
-    private String category;
 
-    @JsonProperty("description")
-    private String description;
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DonationItem {
+        @JsonProperty("category")
+        private String category;
+
+        @JsonProperty("description")
+        private String description;
 
-    @JsonProperty("quantity")
-    private String quantity;
+        @JsonProperty("quantity")
+        private String quantity;
+    }
 }
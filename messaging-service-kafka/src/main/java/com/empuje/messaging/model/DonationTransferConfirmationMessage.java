@@ -0,0 +1,22 @@
+package com.empuje.messaging.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Acuse de una transferencia recibida, para la organización donante. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DonationTransferConfirmationMessage {
+    private String requestId;
+    private String donorOrganizationId;
+    private String receiverOrganizationId;
+    /** timestamp de la transferencia confirmada, que junto con la solicitud la identifica */
+    private String transferTimestamp;
+    /** APLICADA, SIN_ITEM o CANTIDAD_INVALIDA (ver TransferLedger) */
+    private String status;
+    private String timestamp;
+}
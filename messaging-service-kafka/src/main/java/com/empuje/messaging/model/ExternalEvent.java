@@ -0,0 +1,61 @@
+package com.empuje.messaging.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/**
+ * Evento solidario publicado por otra organización, tal como lo vimos por última vez en
+ * eventos-solidarios. Lo escribe ExternalEventCatalog; el índice por fecha sirve el listado
+ * de próximos eventos sin recorrer la tabla.
+ */
+@Entity
+@Table(name = "external_events",
+       indexes = @Index(name = "idx_external_events_date", columnList = "event_date_time"))
+@IdClass(ExternalEvent.Key.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExternalEvent {
+
+    @Id
+    @Column(name = "organization_id", length = 100)
+    private String organizationId;
+
+    @Id
+    @Column(name = "event_id", length = 100)
+    private String eventId;
+
+    @Column(name = "event_name", length = 255)
+    private String eventName;
+
+    @Column(columnDefinition = "TEXT")
+    private String description;
+
+    /** Null si la fecha publicada no se pudo interpretar. */
+    @Column(name = "event_date_time")
+    private LocalDateTime eventDateTime;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String organizationId;
+        private String eventId;
+    }
+}
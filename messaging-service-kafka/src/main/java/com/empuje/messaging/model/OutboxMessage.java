@@ -0,0 +1,59 @@
+package com.empuje.messaging.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Registro pendiente de publicar en Kafka. Se escribe en la misma transacción que el
+ * cambio que lo origina y OutboxRelay lo publica y lo borra; el id da el orden de envío.
+ * Si falla demasiadas veces queda apartado (parkedAt) para revisarlo a mano.
+ */
+@Entity
+@Table(name = "outbox_messages")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 249)
+    private String topic;
+
+    @Column(name = "message_key", length = 191)
+    private String messageKey;
+
+    /** Vacío para un tombstone (valor null en Kafka). */
+    @Column(nullable = false, columnDefinition = "LONGTEXT")
+    private String payload;
+
+    /** Headers del registro como objeto JSON de nombre a valor. */
+    @Column(length = 1000)
+    private String headers;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    /** Hora en que se apartó tras agotar los intentos; un registro apartado ya no se envía. */
+    @Column(name = "parked_at")
+    private Instant parkedAt;
+}
@@ -0,0 +1,32 @@
+package com.empuje.messaging.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Mensaje ya procesado, identificado por tipo e id de negocio. Se conserva durante la
+ * ventana de deduplicación (ver MessageDeduplicator).
+ */
+@Entity
+@Table(name = "processed_messages",
+       indexes = @Index(name = "idx_processed_messages_processed_at", columnList = "processed_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedMessage {
+
+    @Id
+    @Column(name = "message_key", length = 191)
+    private String messageKey;
+
+    @Column(name = "processed_at", nullable = false)
+    private Instant processedAt;
+}
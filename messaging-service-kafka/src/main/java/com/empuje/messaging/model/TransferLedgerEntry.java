@@ -0,0 +1,47 @@
+package com.empuje.messaging.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Transferencia recibida y ya aplicada al inventario. Se escribe en la misma transacción
+ * que el ajuste, así una transferencia se aplica una sola vez aunque se vuelva a entregar
+ * (ver TransferLedger).
+ */
+@Entity
+@Table(name = "transfer_ledger",
+       indexes = @Index(name = "idx_transfer_ledger_request", columnList = "request_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferLedgerEntry {
+
+    /** solicitud:donante:timestamp, como en DonationTransferConsumer */
+    @Id
+    @Column(name = "transfer_id", length = 191)
+    private String transferId;
+
+    @Column(name = "request_id", nullable = false, length = 100)
+    private String requestId;
+
+    @Column(name = "donor_organization_id", length = 100)
+    private String donorOrganizationId;
+
+    @Column(nullable = false, length = 32)
+    private String status;
+
+    /** Registro que la aplicó: tópico-partición@offset. */
+    @Column(nullable = false, length = 300)
+    private String source;
+
+    @Column(name = "applied_at", nullable = false)
+    private Instant appliedAt;
+}
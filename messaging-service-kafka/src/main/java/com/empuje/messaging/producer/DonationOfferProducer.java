@@ -1,38 +1,43 @@
 package com.empuje.messaging.producer;
 
+import com.empuje.messaging.config.KafkaRouting;
 import com.empuje.messaging.model.DonationOfferMessage;
+import com.empuje.messaging.service.OutboxService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DonationOfferProducer {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OutboxService outbox;
     private final ObjectMapper objectMapper;
+    private final KafkaRouting kafkaRouting;
 
     private static final String TOPIC = "oferta-donaciones";
 
+    @Transactional
     public void publishDonationOffer(DonationOfferMessage message) {
         try {
-            String messageJson = objectMapper.writeValueAsString(message);
-            kafkaTemplate.send(TOPIC, message.getDonorOrganizationId(), messageJson)
-                    .whenComplete((result, ex) -> {
-                        if (ex == null) {
-                            log.info("Oferta de donación publicada en tópico {}: {}",
-                                   TOPIC, message.getOfferId());
-                        } else {
-                            log.error("Error publicando oferta en tópico {}: {}",
-                                    TOPIC, ex.getMessage());
-                        }
-                    });
+            outbox.enqueue(records(message));
+            log.info("Oferta de donación encolada para tópico {}: {}", TOPIC, message.getOfferId());
         } catch (JsonProcessingException e) {
             log.error("Error serializando mensaje de oferta: {}", e.getMessage());
         }
     }
+
+    /** Los registros que publica publishDonationOffer, sin escribirlos en el outbox. */
+    public List<ProducerRecord<String, String>> records(DonationOfferMessage message) throws JsonProcessingException {
+        String messageJson = objectMapper.writeValueAsString(message);
+        return List.of(kafkaRouting.record(TOPIC, message.getDonorOrganizationId(), messageJson,
+                DonationOfferMessage.class.getSimpleName(), message.getDonorOrganizationId()));
+    }
 }
@@ -1,38 +1,50 @@
 package com.empuje.messaging.producer;
 
+import com.empuje.messaging.config.KafkaRouting;
 import com.empuje.messaging.model.DonationTransferMessage;
+import com.empuje.messaging.service.OutboxService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class DonationTransferProducer {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OutboxService outbox;
     private final ObjectMapper objectMapper;
+    private final KafkaRouting kafkaRouting;
 
+    @Transactional
     public void publishDonationTransfer(String targetOrganizationId, DonationTransferMessage message) {
         try {
-            String messageJson = objectMapper.writeValueAsString(message);
-            String topic = "transferencia-donaciones/" + targetOrganizationId;
-
-            kafkaTemplate.send(topic, message.getRequestId(), messageJson)
-                    .whenComplete((result, ex) -> {
-                        if (ex == null) {
-                            log.info("Transferencia de donación publicada en tópico {}: {}",
-                                   topic, message.getRequestId());
-                        } else {
-                            log.error("Error publicando transferencia en tópico {}: {}",
-                                    topic, ex.getMessage());
-                        }
-                    });
+            outbox.enqueue(records(targetOrganizationId, message));
+            log.info("Transferencia de donación encolada para tópico {}: {}", KafkaRouting.TRANSFER_TOPIC, message.getRequestId());
         } catch (JsonProcessingException e) {
             log.error("Error serializando mensaje de transferencia: {}", e.getMessage());
         }
     }
+
+    /** Los registros que publica publishDonationTransfer, sin escribirlos en el outbox. */
+    public List<ProducerRecord<String, String>> records(String targetOrganizationId, DonationTransferMessage message)
+            throws JsonProcessingException {
+        String messageJson = objectMapper.writeValueAsString(message);
+        String topic = KafkaRouting.TRANSFER_TOPIC;
+
+        List<ProducerRecord<String, String>> records = new ArrayList<>(2);
+        if (kafkaRouting.isLegacyPublish()) {
+            records.add(new ProducerRecord<>(kafkaRouting.legacyTopic(topic, targetOrganizationId), messageJson));
+        }
+        records.add(kafkaRouting.toOrganization(topic, targetOrganizationId, messageJson,
+                DonationTransferMessage.class.getSimpleName(), message.getDonorOrganizationId()));
+        return records;
+    }
 }
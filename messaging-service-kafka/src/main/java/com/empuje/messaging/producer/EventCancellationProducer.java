@@ -1,38 +1,48 @@
 package com.empuje.messaging.producer;
 
+import com.empuje.messaging.config.KafkaRouting;
 import com.empuje.messaging.model.EventCancellationMessage;
+import com.empuje.messaging.service.OutboxService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EventCancellationProducer {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OutboxService outbox;
     private final ObjectMapper objectMapper;
+    private final KafkaRouting kafkaRouting;
+    private final ExternalEventProducer externalEventProducer;
 
     private static final String TOPIC = "baja-evento-solidario";
 
+    @Transactional
     public void publishEventCancellation(EventCancellationMessage message) {
         try {
-            String messageJson = objectMapper.writeValueAsString(message);
-            kafkaTemplate.send(TOPIC, message.getOrganizationId(), messageJson)
-                    .whenComplete((result, ex) -> {
-                        if (ex == null) {
-                            log.info("Baja de evento publicada en tópico {}: {}",
-                                   TOPIC, message.getEventId());
-                        } else {
-                            log.error("Error publicando baja de evento en tópico {}: {}",
-                                    TOPIC, ex.getMessage());
-                        }
-                    });
+            outbox.enqueue(records(message));
+            log.info("Baja de evento encolada para tópico {}: {}", TOPIC, message.getEventId());
         } catch (JsonProcessingException e) {
             log.error("Error serializando mensaje de baja de evento: {}", e.getMessage());
         }
     }
+
+    /**
+     * Los registros que publica publishEventCancellation, sin escribirlos en el outbox: la
+     * baja y el tombstone del evento en eventos-solidarios.
+     */
+    public List<ProducerRecord<String, String>> records(EventCancellationMessage message) throws JsonProcessingException {
+        String messageJson = objectMapper.writeValueAsString(message);
+        return List.of(kafkaRouting.record(TOPIC, message.getOrganizationId(), messageJson,
+                        EventCancellationMessage.class.getSimpleName(), message.getOrganizationId()),
+                externalEventProducer.tombstone(message.getOrganizationId(), message.getEventId()));
+    }
 }
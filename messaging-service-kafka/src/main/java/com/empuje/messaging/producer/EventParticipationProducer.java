@@ -1,38 +1,50 @@
 package com.empuje.messaging.producer;
 
+import com.empuje.messaging.config.KafkaRouting;
 import com.empuje.messaging.model.EventParticipationMessage;
+import com.empuje.messaging.service.OutboxService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EventParticipationProducer {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OutboxService outbox;
     private final ObjectMapper objectMapper;
+    private final KafkaRouting kafkaRouting;
 
+    @Transactional
     public void publishEventParticipation(String organizerId, EventParticipationMessage message) {
         try {
-            String messageJson = objectMapper.writeValueAsString(message);
-            String topic = "adhesion-evento/" + organizerId;
-
-            kafkaTemplate.send(topic, message.getVolunteerId(), messageJson)
-                    .whenComplete((result, ex) -> {
-                        if (ex == null) {
-                            log.info("Adhesión a evento publicada en tópico {}: {}",
-                                   topic, message.getEventId());
-                        } else {
-                            log.error("Error publicando adhesión en tópico {}: {}",
-                                    topic, ex.getMessage());
-                        }
-                    });
+            outbox.enqueue(records(organizerId, message));
+            log.info("Adhesión a evento encolada para tópico {}: {}", KafkaRouting.PARTICIPATION_TOPIC, message.getEventId());
         } catch (JsonProcessingException e) {
             log.error("Error serializando mensaje de adhesión: {}", e.getMessage());
         }
     }
+
+    /** Los registros que publica publishEventParticipation, sin escribirlos en el outbox. */
+    public List<ProducerRecord<String, String>> records(String organizerId, EventParticipationMessage message)
+            throws JsonProcessingException {
+        String messageJson = objectMapper.writeValueAsString(message);
+        String topic = KafkaRouting.PARTICIPATION_TOPIC;
+
+        List<ProducerRecord<String, String>> records = new ArrayList<>(2);
+        if (kafkaRouting.isLegacyPublish()) {
+            records.add(new ProducerRecord<>(kafkaRouting.legacyTopic(topic, organizerId), messageJson));
+        }
+        records.add(kafkaRouting.toOrganization(topic, organizerId, messageJson,
+                EventParticipationMessage.class.getSimpleName(), message.getVolunteerOrganizationId()));
+        return records;
+    }
 }
@@ -1,38 +1,57 @@
 package com.empuje.messaging.producer;
 
+import com.empuje.messaging.config.KafkaRouting;
 import com.empuje.messaging.model.ExternalEventMessage;
+import com.empuje.messaging.service.OutboxService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ExternalEventProducer {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OutboxService outbox;
     private final ObjectMapper objectMapper;
+    private final KafkaRouting kafkaRouting;
 
-    private static final String TOPIC = "eventos-solidarios";
+    /**
+     * Tópico compactado: la clave es organización|evento, así queda la última versión de
+     * cada evento vigente y una baja (tombstone) lo borra del todo.
+     */
+    public static final String TOPIC = "eventos-solidarios";
 
+    @Transactional
     public void publishExternalEvent(ExternalEventMessage message) {
         try {
-            String messageJson = objectMapper.writeValueAsString(message);
-            kafkaTemplate.send(TOPIC, message.getOrganizationId(), messageJson)
-                    .whenComplete((result, ex) -> {
-                        if (ex == null) {
-                            log.info("Evento externo publicado en tópico {}: {}",
-                                   TOPIC, message.getEventId());
-                        } else {
-                            log.error("Error publicando evento externo en tópico {}: {}",
-                                    TOPIC, ex.getMessage());
-                        }
-                    });
+            outbox.enqueue(records(message));
+            log.info("Evento externo encolado para tópico {}: {}", TOPIC, message.getEventId());
         } catch (JsonProcessingException e) {
             log.error("Error serializando mensaje de evento externo: {}", e.getMessage());
         }
     }
+
+    /** Los registros que publica publishExternalEvent, sin escribirlos en el outbox. */
+    public List<ProducerRecord<String, String>> records(ExternalEventMessage message) throws JsonProcessingException {
+        String messageJson = objectMapper.writeValueAsString(message);
+        return List.of(kafkaRouting.record(TOPIC, key(message.getOrganizationId(), message.getEventId()), messageJson,
+                ExternalEventMessage.class.getSimpleName(), message.getOrganizationId()));
+    }
+
+    /** El tombstone que borra el evento del tópico compactado. */
+    public ProducerRecord<String, String> tombstone(String organizationId, String eventId) {
+        return kafkaRouting.record(TOPIC, key(organizationId, eventId), null,
+                ExternalEventMessage.class.getSimpleName(), organizationId);
+    }
+
+    public static String key(String organizationId, String eventId) {
+        return organizationId + "|" + eventId;
+    }
 }
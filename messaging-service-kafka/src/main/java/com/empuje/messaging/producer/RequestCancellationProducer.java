@@ -1,38 +1,43 @@
 package com.empuje.messaging.producer;
 
+import com.empuje.messaging.config.KafkaRouting;
 import com.empuje.messaging.model.RequestCancellationMessage;
+import com.empuje.messaging.service.OutboxService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RequestCancellationProducer {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OutboxService outbox;
     private final ObjectMapper objectMapper;
+    private final KafkaRouting kafkaRouting;
 
     private static final String TOPIC = "baja-solicitud-donaciones";
 
+    @Transactional
     public void publishRequestCancellation(RequestCancellationMessage message) {
         try {
-            String messageJson = objectMapper.writeValueAsString(message);
-            kafkaTemplate.send(TOPIC, message.getOrganizationId(), messageJson)
-                    .whenComplete((result, ex) -> {
-                        if (ex == null) {
-                            log.info("Baja de solicitud publicada en tópico {}: {}",
-                                   TOPIC, message.getRequestId());
-                        } else {
-                            log.error("Error publicando baja de solicitud en tópico {}: {}",
-                                    TOPIC, ex.getMessage());
-                        }
-                    });
+            outbox.enqueue(records(message));
+            log.info("Baja de solicitud encolada para tópico {}: {}", TOPIC, message.getRequestId());
         } catch (JsonProcessingException e) {
             log.error("Error serializando mensaje de baja de solicitud: {}", e.getMessage());
         }
     }
+
+    /** Los registros que publica publishRequestCancellation, sin escribirlos en el outbox. */
+    public List<ProducerRecord<String, String>> records(RequestCancellationMessage message) throws JsonProcessingException {
+        String messageJson = objectMapper.writeValueAsString(message);
+        return List.of(kafkaRouting.record(TOPIC, message.getOrganizationId(), messageJson,
+                RequestCancellationMessage.class.getSimpleName(), message.getOrganizationId()));
+    }
 }
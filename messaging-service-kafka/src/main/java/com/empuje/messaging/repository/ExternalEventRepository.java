@@ -0,0 +1,23 @@
+package com.empuje.messaging.repository;
+
+import com.empuje.messaging.model.ExternalEvent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ExternalEventRepository extends JpaRepository<ExternalEvent, ExternalEvent.Key> {
+
+    /**
+     * Eventos desde {@code from}, por fecha. En InnoDB el índice secundario ya incluye la
+     * clave primaria, así que el desempate por organización y evento también sale del índice.
+     */
+    @Query("SELECT e FROM ExternalEvent e WHERE e.eventDateTime >= :from "
+            + "ORDER BY e.eventDateTime, e.organizationId, e.eventId")
+    Page<ExternalEvent> findUpcoming(@Param("from") LocalDateTime from, Pageable pageable);
+}
@@ -0,0 +1,20 @@
+package com.empuje.messaging.repository;
+
+import com.empuje.messaging.model.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Los pendientes más viejos, bloqueados para esta transacción. SKIP LOCKED deja que
+     * otra instancia tome el lote siguiente en vez de esperar. Los apartados no se cuentan.
+     */
+    @Query(value = "SELECT * FROM outbox_messages WHERE parked_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxMessage> lockNextBatch(@Param("limit") int limit);
+}
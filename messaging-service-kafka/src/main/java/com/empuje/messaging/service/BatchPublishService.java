@@ -0,0 +1,105 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.config.KafkaRouting;
+import com.empuje.messaging.model.*;
+import com.empuje.messaging.producer.*;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Publica muchos mensajes de distintos tipos en una sola llamada. La conversión y
+ * serialización de cada mensaje corre en paralelo; después todos los registros válidos se
+ * escriben en el outbox con un único batch y una única transacción. Un mensaje inválido
+ * se informa en su resultado y no impide publicar el resto.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchPublishService {
+
+    private final ObjectMapper objectMapper;
+    private final OutboxService outbox;
+    private final DonationRequestProducer donationRequestProducer;
+    private final RequestCancellationProducer requestCancellationProducer;
+    private final DonationOfferProducer donationOfferProducer;
+    private final DonationTransferProducer donationTransferProducer;
+    private final ExternalEventProducer externalEventProducer;
+    private final EventCancellationProducer eventCancellationProducer;
+    private final EventParticipationProducer eventParticipationProducer;
+
+    private record Prepared(BatchPublishResult result, List<ProducerRecord<String, String>> records) {
+    }
+
+    @Transactional
+    public List<BatchPublishResult> publish(List<BatchPublishItem> items) throws JsonProcessingException {
+        List<Prepared> prepared = IntStream.range(0, items.size()).parallel()
+                .mapToObj(i -> prepare(i, items.get(i)))
+                .toList();
+
+        List<ProducerRecord<String, String>> records = new ArrayList<>();
+        List<BatchPublishResult> results = new ArrayList<>(prepared.size());
+        for (Prepared p : prepared) {
+            records.addAll(p.records());
+            results.add(p.result());
+        }
+        outbox.enqueue(records);
+        log.info("Lote publicado: {} de {} mensajes aceptados", results.stream().filter(BatchPublishResult::isAccepted).count(), items.size());
+        return results;
+    }
+
+    private Prepared prepare(int index, BatchPublishItem item) {
+        BatchPublishResult.BatchPublishResultBuilder result = BatchPublishResult.builder()
+                .index(index)
+                .topic(item.getTopic());
+        try {
+            if (item.getMessage() == null) {
+                throw new IllegalArgumentException("Falta el mensaje");
+            }
+            List<ProducerRecord<String, String>> records = records(item);
+            return new Prepared(result.accepted(true).build(), records);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return new Prepared(result.accepted(false).error(e.getMessage()).build(), List.of());
+        }
+    }
+
+    private List<ProducerRecord<String, String>> records(BatchPublishItem item) throws JsonProcessingException {
+        String topic = item.getTopic() == null ? "" : item.getTopic();
+        return switch (topic) {
+            case "solicitud-donaciones" ->
+                    donationRequestProducer.records(read(item, DonationRequestMessage.class));
+            case "baja-solicitud-donaciones" ->
+                    requestCancellationProducer.records(read(item, RequestCancellationMessage.class));
+            case "oferta-donaciones" ->
+                    donationOfferProducer.records(read(item, DonationOfferMessage.class));
+            case "eventos-solidarios" ->
+                    externalEventProducer.records(read(item, ExternalEventMessage.class));
+            case "baja-evento-solidario" ->
+                    eventCancellationProducer.records(read(item, EventCancellationMessage.class));
+            case KafkaRouting.TRANSFER_TOPIC ->
+                    donationTransferProducer.records(target(item), read(item, DonationTransferMessage.class));
+            case KafkaRouting.PARTICIPATION_TOPIC ->
+                    eventParticipationProducer.records(target(item), read(item, EventParticipationMessage.class));
+            default -> throw new IllegalArgumentException("Tópico desconocido: " + item.getTopic());
+        };
+    }
+
+    private <T> T read(BatchPublishItem item, Class<T> type) throws JsonProcessingException {
+        return objectMapper.treeToValue(item.getMessage(), type);
+    }
+
+    private static String target(BatchPublishItem item) {
+        if (item.getTargetOrganizationId() == null || item.getTargetOrganizationId().isBlank()) {
+            throw new IllegalArgumentException("Falta targetOrganizationId para " + item.getTopic());
+        }
+        return item.getTargetOrganizationId();
+    }
+}
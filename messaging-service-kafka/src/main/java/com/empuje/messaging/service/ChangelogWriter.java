@@ -0,0 +1,73 @@
+package com.empuje.messaging.service;
+
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Escrituras a un changelog compactado que se confirman con el lote que las produjo.
+ *
+ * Cada hilo consumidor acumula sus envíos y {@link #flush} espera sus acks: si alguno
+ * falló lanza KafkaException, así el lote no se confirma. Como el lote reintentado puede
+ * saltear esos mensajes (ya figuran como procesados), las claves que fallaron se vuelven a
+ * escribir en el próximo flush de cualquier hilo, con el valor vigente en ese momento.
+ */
+class ChangelogWriter {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final String topic;
+    /** Valor vigente de una clave; null escribe un tombstone. */
+    private final Function<String, String> current;
+
+    private final ThreadLocal<Map<String, CompletableFuture<SendResult<String, String>>>> pending =
+            ThreadLocal.withInitial(LinkedHashMap::new);
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+
+    ChangelogWriter(KafkaTemplate<String, String> kafkaTemplate, String topic, Function<String, String> current) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.topic = topic;
+        this.current = current;
+    }
+
+    void send(String key, String value) {
+        pending.get().put(key, kafkaTemplate.send(topic, key, value));
+    }
+
+    /**
+     * Reescribe las claves que fallaron antes, espera los acks de lo que envió este hilo y
+     * lanza KafkaException si alguno falló.
+     */
+    void flush() {
+        for (String key : new ArrayList<>(failed)) {
+            failed.remove(key);
+            send(key, current.apply(key));
+        }
+        kafkaTemplate.flush();
+        Map<String, CompletableFuture<SendResult<String, String>>> sent = pending.get();
+        List<String> lost = new ArrayList<>();
+        Throwable cause = null;
+        for (Map.Entry<String, CompletableFuture<SendResult<String, String>>> e : sent.entrySet()) {
+            try {
+                e.getValue().join();
+            } catch (CompletionException ex) {
+                lost.add(e.getKey());
+                cause = ex.getCause();
+            }
+        }
+        sent.clear();
+        if (!lost.isEmpty()) {
+            failed.addAll(lost);
+            throw new KafkaException("No se pudieron escribir " + lost.size() + " claves en " + topic, cause);
+        }
+    }
+}
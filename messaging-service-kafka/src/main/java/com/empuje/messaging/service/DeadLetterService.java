@@ -0,0 +1,135 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.config.KafkaRetryTopics;
+import com.empuje.messaging.config.KafkaRouting;
+import com.empuje.messaging.model.DeadLetterEntry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lectura y reenvío de los DLT. Usa un consumer propio con asignación manual de
+ * particiones y sin confirmar offsets, así que no interfiere con ningún grupo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DeadLetterService {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(2);
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final KafkaRetryTopics retryTopics;
+
+    /** Las primeras {@code max} entradas del DLT del tópico, de todas sus particiones. */
+    public List<DeadLetterEntry> list(String topic, int max) {
+        String dlt = retryTopics.deadLetterTopic(topic);
+        List<DeadLetterEntry> entries = new ArrayList<>();
+        try (Consumer<String, String> consumer = createConsumer()) {
+            List<PartitionInfo> infos = consumer.partitionsFor(dlt);
+            if (infos == null) {
+                return entries;
+            }
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : infos) {
+                partitions.add(new TopicPartition(dlt, info.partition()));
+            }
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            while (entries.size() < max && !reachedEnd(consumer, end)) {
+                for (ConsumerRecord<String, String> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (entries.size() < max) {
+                        entries.add(toEntry(record));
+                    }
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reinyecta la entrada {@code partition}/{@code offset} del DLT en el circuito de
+     * reintentos; se procesa apenas la toma el consumidor de reintentos.
+     *
+     * @return false si no existe esa entrada
+     */
+    public boolean replay(String topic, int partition, long offset) throws Exception {
+        Optional<ConsumerRecord<String, String>> record = read(retryTopics.deadLetterTopic(topic), partition, offset);
+        if (record.isEmpty()) {
+            return false;
+        }
+        kafkaTemplate.send(retryTopics.replay(record.get())).get(10, TimeUnit.SECONDS);
+        log.info("Entrada {}-{}@{} del DLT reenviada a reintentos", topic, partition, offset);
+        return true;
+    }
+
+    private Optional<ConsumerRecord<String, String>> read(String dlt, int partition, long offset) {
+        try (Consumer<String, String> consumer = createConsumer()) {
+            TopicPartition tp = new TopicPartition(dlt, partition);
+            consumer.assign(List.of(tp));
+            long end = consumer.endOffsets(List.of(tp)).get(tp);
+            if (offset >= end) {
+                return Optional.empty();
+            }
+            consumer.seek(tp, offset);
+            while (consumer.position(tp) <= offset) {
+                for (ConsumerRecord<String, String> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (record.offset() == offset) {
+                        return Optional.of(record);
+                    }
+                }
+            }
+            return Optional.empty();
+        }
+    }
+
+    private Consumer<String, String> createConsumer() {
+        return consumerFactory.createConsumer("empuje-dlt-inspector", "dlt-inspector");
+    }
+
+    private static boolean reachedEnd(Consumer<String, String> consumer, Map<TopicPartition, Long> end) {
+        for (Map.Entry<TopicPartition, Long> e : end.entrySet()) {
+            if (consumer.position(e.getKey()) < e.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static DeadLetterEntry toEntry(ConsumerRecord<String, String> record) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : record.headers()) {
+            headers.put(header.key(), header.value() == null ? null : new String(header.value(), StandardCharsets.UTF_8));
+        }
+        return DeadLetterEntry.builder()
+                .partition(record.partition())
+                .offset(record.offset())
+                .key(record.key())
+                .value(record.value())
+                .originalTopic(KafkaRouting.header(record, KafkaRetryTopics.ORIGINAL_TOPIC_HEADER))
+                .exception(KafkaRouting.header(record, KafkaRetryTopics.EXCEPTION_HEADER))
+                .exceptionMessage(KafkaRouting.header(record, KafkaRetryTopics.EXCEPTION_MESSAGE_HEADER))
+                .failedAt(KafkaRouting.header(record, KafkaRetryTopics.FAILED_AT_HEADER))
+                .attempts(KafkaRetryTopics.intHeader(record, KafkaRetryTopics.ATTEMPT_HEADER).orElse(0))
+                .headers(headers)
+                .build();
+    }
+}
@@ -0,0 +1,348 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.config.KafkaRouting;
+import com.empuje.messaging.model.DemandWindow;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Demanda de donaciones en la red por ventanas de tiempo: ítems pedidos en
+ * "solicitud-donaciones" y ofertas de "oferta-donaciones", por categoría y por
+ * organización. Se cuentan ítems y no cantidades, que son texto libre con unidades
+ * distintas. Cuenta a todas las organizaciones de la red, la nuestra incluida.
+ *
+ * Se acumula en paneles de una hora (según el timestamp del registro) y las ventanas se
+ * arman al consultar sumando paneles: la hora y el día (UTC) son ventanas fijas; las
+ * últimas 24 horas avanzan de a una hora. Así cada mensaje suma una vez, sin importar
+ * cuántas ventanas lo incluyan.
+ *
+ * Los paneles tocados en un lote se escriben con su total en un tópico compactado propio
+ * (clave hora|organización|categoría) antes de confirmar el lote; al arrancar se
+ * reconstruyen leyendo ese changelog. Los paneles más viejos que la retención se borran
+ * con tombstones, y los mensajes que llegan tarde para esa retención se descartan.
+ */
+@Slf4j
+@Service
+public class DemandWindows {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final long HOUR_MS = Duration.ofHours(1).toMillis();
+
+    public enum Side { REQUESTED, OFFERED }
+
+    /** Tamaño y avance de cada tipo de ventana, en horas. */
+    public enum Window {
+        HOUR(1, 1), DAY(24, 24), LAST_24H(24, 1);
+
+        private final long sizeMs;
+        private final long advanceMs;
+
+        Window(int sizeHours, int advanceHours) {
+            this.sizeMs = sizeHours * HOUR_MS;
+            this.advanceMs = advanceHours * HOUR_MS;
+        }
+    }
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final String changelogTopic;
+    private final ChangelogWriter changelog;
+    private final long retentionMs;
+    private final Clock clock;
+    private final Counter lateEvents;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Inicio de la hora → organización|categoría → {pedidos, ofrecidos}. */
+    private final TreeMap<Long, Map<String, long[]>> panes = new TreeMap<>();
+    /** Claves del changelog cambiadas desde el último flush. */
+    private final Set<String> dirty = new LinkedHashSet<>();
+    private int cells;
+
+    @Autowired
+    public DemandWindows(KafkaTemplate<String, String> kafkaTemplate,
+                         ConsumerFactory<String, String> consumerFactory,
+                         KafkaRouting kafkaRouting,
+                         MeterRegistry meterRegistry,
+                         @Value("${empuje.demand.retention-hours:168}") int retentionHours) {
+        this(kafkaTemplate, consumerFactory, kafkaRouting, meterRegistry, retentionHours, Clock.systemUTC());
+    }
+
+    /** Con un reloj propio, para probar los bordes de las ventanas y de la retención. */
+    DemandWindows(KafkaTemplate<String, String> kafkaTemplate,
+                  ConsumerFactory<String, String> consumerFactory,
+                  KafkaRouting kafkaRouting,
+                  MeterRegistry meterRegistry,
+                  int retentionHours,
+                  Clock clock) {
+        this.consumerFactory = consumerFactory;
+        this.changelogTopic = changelogTopic(kafkaRouting.getOrganizationId());
+        this.changelog = new ChangelogWriter(kafkaTemplate, changelogTopic, this::currentValue);
+        this.retentionMs = retentionHours * HOUR_MS;
+        this.clock = clock;
+        this.lateEvents = meterRegistry.counter("empuje.demand.late");
+        Gauge.builder("empuje.demand.cells", this, DemandWindows::cells).register(meterRegistry);
+    }
+
+    public static String changelogTopic(String organizationId) {
+        return "demanda-donaciones-" + organizationId + "-changelog";
+    }
+
+    /** Reconstruye los paneles desde el changelog, antes de que arranquen los listeners. */
+    @PostConstruct
+    void restore() {
+        long start = System.nanoTime();
+        int records = 0;
+        long cutoff = cutoff(clock.millis());
+        List<String> expired = new ArrayList<>();
+        try (Consumer<String, String> consumer = consumerFactory.createConsumer("empuje-demand-restore", "restore")) {
+            List<PartitionInfo> infos = consumer.partitionsFor(changelogTopic);
+            if (infos == null || infos.isEmpty()) {
+                return;
+            }
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : infos) {
+                partitions.add(new TopicPartition(changelogTopic, info.partition()));
+            }
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            while (!reachedEnd(consumer, end)) {
+                for (ConsumerRecord<String, String> record : consumer.poll(POLL_TIMEOUT)) {
+                    records++;
+                    restoreLocal(record.key(), record.value(), cutoff, expired);
+                }
+            }
+        }
+        // lo que venció mientras la instancia estaba caída no está en memoria: se borra acá
+        for (String key : expired) {
+            changelog.send(key, null);
+        }
+        try {
+            changelog.flush();
+        } catch (KafkaException e) {
+            log.warn("Paneles de demanda vencidos sin borrar del changelog, se reintenta en el próximo flush: {}", e.getMessage());
+        }
+        log.info("Demanda de donaciones restaurada: {} celdas ({} registros del changelog en {} ms)",
+                cells(), records, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Suma un ítem de la categoría al panel de la hora de {@code timestamp}. */
+    public void record(Side side, long timestamp, String organizationId, String category) {
+        if (organizationId == null || category == null) {
+            return;
+        }
+        long hour = Math.floorDiv(timestamp, HOUR_MS) * HOUR_MS;
+        if (hour < cutoff(clock.millis())) {
+            lateEvents.increment();
+            return;
+        }
+        String cell = organizationId + "|" + category;
+        lock.writeLock().lock();
+        try {
+            Map<String, long[]> pane = panes.computeIfAbsent(hour, k -> new HashMap<>());
+            long[] counts = pane.get(cell);
+            if (counts == null) {
+                counts = new long[2];
+                pane.put(cell, counts);
+                cells++;
+            }
+            counts[side.ordinal()]++;
+            dirty.add(hour + "|" + cell);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Escribe en el changelog los paneles cambiados y espera los acks; se llama antes de
+     * confirmar un lote y lanza KafkaException si alguna escritura falló.
+     */
+    public void flush() {
+        Map<String, String> changed = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            for (String key : dirty) {
+                changed.put(key, value(lookup(key)));
+            }
+            dirty.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        for (Map.Entry<String, String> e : changed.entrySet()) {
+            changelog.send(e.getKey(), e.getValue());
+        }
+        changelog.flush();
+    }
+
+    /** Borra los paneles que salieron de la retención, en memoria y en el changelog. */
+    @Scheduled(fixedDelayString = "${empuje.demand.purge-interval-ms:300000}")
+    public void purge() {
+        List<String> expired = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            NavigableMap<Long, Map<String, long[]>> old = panes.headMap(cutoff(clock.millis()), false);
+            for (Map.Entry<Long, Map<String, long[]>> pane : old.entrySet()) {
+                for (String cell : pane.getValue().keySet()) {
+                    String key = pane.getKey() + "|" + cell;
+                    expired.add(key);
+                    dirty.remove(key);
+                }
+                cells -= pane.getValue().size();
+            }
+            old.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        for (String key : expired) {
+            changelog.send(key, null);
+        }
+        changelog.flush();
+        log.debug("Paneles de demanda vencidos: {}", expired.size());
+    }
+
+    /**
+     * Las {@code count} ventanas más recientes, de la actual hacia atrás, sin pasar de la
+     * retención. La organización es opcional.
+     */
+    public List<DemandWindow> windows(Window window, int count, String organizationId) {
+        long now = clock.millis();
+        long cutoff = cutoff(now);
+        long end = (Math.floorDiv(now, window.advanceMs) + 1) * window.advanceMs;
+        List<DemandWindow> result = new ArrayList<>(count);
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < count && end > cutoff; i++, end -= window.advanceMs) {
+                result.add(aggregate(window, end - window.sizeMs, end, organizationId));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    public int cells() {
+        lock.readLock().lock();
+        try {
+            return cells;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private DemandWindow aggregate(Window window, long start, long end, String organizationId) {
+        Map<String, DemandWindow.Count> byCategory = new TreeMap<>();
+        Map<String, DemandWindow.Count> byOrganization = new TreeMap<>();
+        for (Map<String, long[]> pane : panes.subMap(start, true, end, false).values()) {
+            for (Map.Entry<String, long[]> e : pane.entrySet()) {
+                int separator = e.getKey().indexOf('|');
+                String organization = e.getKey().substring(0, separator);
+                if (organizationId != null && !organizationId.equals(organization)) {
+                    continue;
+                }
+                add(byCategory, e.getKey().substring(separator + 1), e.getValue());
+                add(byOrganization, organization, e.getValue());
+            }
+        }
+        return DemandWindow.builder()
+                .window(window.name())
+                .start(Instant.ofEpochMilli(start))
+                .end(Instant.ofEpochMilli(end))
+                .byCategory(byCategory)
+                .byOrganization(byOrganization)
+                .build();
+    }
+
+    private static void add(Map<String, DemandWindow.Count> totals, String key, long[] counts) {
+        DemandWindow.Count total = totals.computeIfAbsent(key, k -> new DemandWindow.Count());
+        total.setRequested(total.getRequested() + counts[Side.REQUESTED.ordinal()]);
+        total.setOffered(total.getOffered() + counts[Side.OFFERED.ordinal()]);
+    }
+
+    private void restoreLocal(String key, String value, long cutoff, List<String> expired) {
+        int separator = key == null ? -1 : key.indexOf('|');
+        if (separator <= 0 || key.indexOf('|', separator + 1) < 0) {
+            return;
+        }
+        long hour = Long.parseLong(key.substring(0, separator));
+        String cell = key.substring(separator + 1);
+        Map<String, long[]> pane = panes.get(hour);
+        if (pane != null && pane.remove(cell) != null) {
+            cells--;
+        }
+        if (value == null) {
+            return;
+        }
+        if (hour < cutoff) {
+            expired.add(key);
+            return;
+        }
+        int comma = value.indexOf(',');
+        long[] counts = {Long.parseLong(value.substring(0, comma)), Long.parseLong(value.substring(comma + 1))};
+        panes.computeIfAbsent(hour, k -> new HashMap<>()).put(cell, counts);
+        cells++;
+    }
+
+    /** Total vigente del panel, o null (tombstone) si ya se purgó. */
+    private String currentValue(String key) {
+        lock.readLock().lock();
+        try {
+            long[] counts = lookup(key);
+            return counts == null ? null : value(counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] lookup(String key) {
+        int separator = key.indexOf('|');
+        Map<String, long[]> pane = panes.get(Long.parseLong(key.substring(0, separator)));
+        return pane == null ? null : pane.get(key.substring(separator + 1));
+    }
+
+    private static String value(long[] counts) {
+        return counts[Side.REQUESTED.ordinal()] + "," + counts[Side.OFFERED.ordinal()];
+    }
+
+    private long cutoff(long now) {
+        return Math.floorDiv(now - retentionMs, HOUR_MS) * HOUR_MS;
+    }
+
+    private static boolean reachedEnd(Consumer<String, String> consumer, Map<TopicPartition, Long> end) {
+        for (Map.Entry<TopicPartition, Long> e : end.entrySet()) {
+            if (consumer.position(e.getKey()) < e.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,158 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.config.KafkaRouting;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Eventos externos dados de baja, en memoria, para que ExternalEventConsumer descarte los
+ * eventos cancelados sin consultar la base por cada mensaje.
+ *
+ * Los ids se agrupan por organización, así cada id de organización se guarda una sola vez.
+ * Cada baja nueva se escribe también en un tópico compactado propio (clave
+ * organización|evento) que al arrancar se lee entero; la compactación deja una entrada por
+ * evento aunque la baja se haya recibido varias veces.
+ */
+@Slf4j
+@Service
+public class EventCancellationIndex {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final String changelogTopic;
+    private final ChangelogWriter changelog;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Set<String>> byOrganization = new HashMap<>();
+    private int size;
+
+    public EventCancellationIndex(KafkaTemplate<String, String> kafkaTemplate,
+                                  ConsumerFactory<String, String> consumerFactory,
+                                  KafkaRouting kafkaRouting,
+                                  MeterRegistry meterRegistry) {
+        this.consumerFactory = consumerFactory;
+        this.changelogTopic = changelogTopic(kafkaRouting.getOrganizationId());
+        // las bajas no se deshacen: una clave que hay que reescribir siempre es una baja
+        this.changelog = new ChangelogWriter(kafkaTemplate, changelogTopic, key -> Instant.now().toString());
+        Gauge.builder("empuje.event-cancellations.size", this, EventCancellationIndex::size).register(meterRegistry);
+    }
+
+    public static String changelogTopic(String organizationId) {
+        return "baja-evento-solidario-" + organizationId + "-changelog";
+    }
+
+    /** Reconstruye el índice desde el changelog, antes de que arranquen los listeners. */
+    @PostConstruct
+    void restore() {
+        long start = System.nanoTime();
+        int records = 0;
+        try (Consumer<String, String> consumer = consumerFactory.createConsumer("empuje-event-cancellations-restore", "restore")) {
+            List<PartitionInfo> infos = consumer.partitionsFor(changelogTopic);
+            if (infos == null || infos.isEmpty()) {
+                return;
+            }
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : infos) {
+                partitions.add(new TopicPartition(changelogTopic, info.partition()));
+            }
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            while (!reachedEnd(consumer, end)) {
+                for (ConsumerRecord<String, String> record : consumer.poll(POLL_TIMEOUT)) {
+                    records++;
+                    int separator = record.key() == null ? -1 : record.key().indexOf('|');
+                    if (separator > 0) {
+                        addLocal(record.key().substring(0, separator), record.key().substring(separator + 1));
+                    }
+                }
+            }
+        }
+        log.info("Bajas de eventos restauradas: {} ({} registros del changelog en {} ms)",
+                size(), records, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Registra la baja.
+     *
+     * @return true si el evento no estaba dado de baja
+     */
+    public boolean cancel(String organizationId, String eventId) {
+        lock.writeLock().lock();
+        try {
+            if (!addLocal(organizationId, eventId)) {
+                return false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // el valor no puede ser null: sería un tombstone y la compactación borraría la baja
+        changelog.send(organizationId + "|" + eventId, Instant.now().toString());
+        return true;
+    }
+
+    public boolean isCancelled(String organizationId, String eventId) {
+        lock.readLock().lock();
+        try {
+            Set<String> events = byOrganization.get(organizationId);
+            return events != null && events.contains(eventId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Espera a que el changelog tenga las bajas registradas hasta ahora; se llama antes de
+     * confirmar un lote y lanza KafkaException si alguna escritura falló.
+     */
+    public void flush() {
+        changelog.flush();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean addLocal(String organizationId, String eventId) {
+        boolean added = byOrganization.computeIfAbsent(organizationId, k -> new HashSet<>()).add(eventId);
+        if (added) {
+            size++;
+        }
+        return added;
+    }
+
+    private static boolean reachedEnd(Consumer<String, String> consumer, Map<TopicPartition, Long> end) {
+        for (Map.Entry<TopicPartition, Long> e : end.entrySet()) {
+            if (consumer.position(e.getKey()) < e.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,268 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.model.ExternalEvent;
+import com.empuje.messaging.model.ExternalEventMessage;
+import com.empuje.messaging.repository.ExternalEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Catálogo de los eventos de otras organizaciones, en external_events, con escritura
+ * diferida: el consumidor deja cada evento en un buffer indexado por (organización, evento),
+ * así varias versiones del mismo evento se escriben una sola vez, y el buffer se vuelca con
+ * un único batch de upserts al juntar {@code flush-size} eventos o cada
+ * {@code flush-interval-ms}.
+ *
+ * El consumidor no confirma sus offsets al terminar el lote sino que entrega el
+ * Acknowledgment al catálogo, que lo confirma recién después de escribir: si la instancia
+ * cae con eventos en el buffer, Kafka los vuelve a entregar. Si la base no responde, el
+ * listener se pausa hasta que un flush vuelva a funcionar, para que el buffer no crezca.
+ */
+@Slf4j
+@Service
+public class ExternalEventCatalog {
+
+    /** Id del listener de eventos-solidarios, para pausarlo mientras no se pueda escribir. */
+    public static final String LISTENER_ID = "external-event-catalog";
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO external_events (organization_id, event_id, event_name, description, event_date_time, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE event_name = VALUES(event_name), "
+            + "description = VALUES(description), event_date_time = VALUES(event_date_time), updated_at = VALUES(updated_at)";
+
+    private static final String DELETE_SQL = "DELETE FROM external_events WHERE organization_id = ? AND event_id = ?";
+
+    private final ExternalEventRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final EventCancellationIndex cancellations;
+    private final int flushSize;
+
+    /** Un flush a la vez, así los acks se confirman en el orden en que llegaron. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private Map<ExternalEvent.Key, ExternalEvent> buffer = new LinkedHashMap<>();
+    private List<Acknowledgment> pendingAcks = new ArrayList<>();
+
+    private final Counter written;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    public ExternalEventCatalog(ExternalEventRepository repository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                KafkaListenerEndpointRegistry listenerRegistry,
+                                EventCancellationIndex cancellations,
+                                MeterRegistry meterRegistry,
+                                @Value("${empuje.external-events.flush-size:500}") int flushSize) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.listenerRegistry = listenerRegistry;
+        this.cancellations = cancellations;
+        this.flushSize = flushSize;
+        this.written = Counter.builder("empuje.external-events.written").register(meterRegistry);
+        this.failed = Counter.builder("empuje.external-events.flush-failures").register(meterRegistry);
+        this.flushTimer = Timer.builder("empuje.external-events.flush").register(meterRegistry);
+        Gauge.builder("empuje.external-events.buffered", this, ExternalEventCatalog::buffered).register(meterRegistry);
+    }
+
+    /** Deja el evento en el buffer; reemplaza una versión anterior todavía sin escribir. */
+    public void stage(ExternalEventMessage message) {
+        ExternalEvent event = ExternalEvent.builder()
+                .organizationId(message.getOrganizationId())
+                .eventId(message.getEventId())
+                .eventName(message.getEventName())
+                .description(message.getDescription())
+                .eventDateTime(parseDateTime(message.getEventDateTime()))
+                .updatedAt(Instant.now())
+                .build();
+        synchronized (this) {
+            buffer.put(new ExternalEvent.Key(event.getOrganizationId(), event.getEventId()), event);
+        }
+    }
+
+    /**
+     * Confirma {@code acknowledgment} después del próximo flush; si el buffer llegó a
+     * {@code flush-size}, el flush es ahora. Sin acknowledgment (reintentos) se escribe ya.
+     */
+    public void commitAfterFlush(Acknowledgment acknowledgment) {
+        boolean full;
+        synchronized (this) {
+            if (acknowledgment != null) {
+                pendingAcks.add(acknowledgment);
+            }
+            full = buffer.size() >= flushSize;
+        }
+        if (acknowledgment == null) {
+            flush();
+            return;
+        }
+        if (full) {
+            try {
+                flush();
+            } catch (DataAccessException e) {
+                log.warn("No se pudo escribir el catálogo de eventos externos, se pausa el consumo: {}", e.getMessage());
+                pauseListener();
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${empuje.external-events.flush-interval-ms:1000}")
+    public void flushOnSchedule() {
+        try {
+            flush();
+            resumeListener();
+        } catch (DataAccessException e) {
+            log.warn("No se pudo escribir el catálogo de eventos externos: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Escribe el buffer y confirma los acks pendientes. Si la escritura falla, los eventos
+     * vuelven al buffer (sin pisar versiones más nuevas) y los acks siguen pendientes.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<ExternalEvent.Key, ExternalEvent> events;
+            List<Acknowledgment> acks;
+            synchronized (this) {
+                events = buffer;
+                acks = pendingAcks;
+                buffer = new LinkedHashMap<>();
+                pendingAcks = new ArrayList<>();
+            }
+            if (events.isEmpty() && acks.isEmpty()) {
+                return;
+            }
+            try {
+                if (!events.isEmpty()) {
+                    flushTimer.record(() -> write(events.values()));
+                    written.increment(events.size());
+                }
+            } catch (RuntimeException e) {
+                failed.increment();
+                synchronized (this) {
+                    events.forEach(buffer::putIfAbsent);
+                    acks.addAll(pendingAcks);
+                    pendingAcks = acks;
+                }
+                throw e;
+            }
+            acks.forEach(Acknowledgment::acknowledge);
+            log.debug("Catálogo de eventos externos: {} eventos escritos, {} lotes confirmados", events.size(), acks.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Saca los eventos dados de baja, del buffer y de la tabla, con un único batch de DELETE.
+     * Espera a que termine el flush en curso: lo que ese flush escriba se borra ahora, y los
+     * siguientes ya no escriben eventos dados de baja.
+     */
+    public void remove(Collection<ExternalEvent.Key> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            synchronized (this) {
+                keys.forEach(buffer::remove);
+            }
+            List<Object[]> args = new ArrayList<>(keys.size());
+            for (ExternalEvent.Key key : keys) {
+                args.add(new Object[]{key.getOrganizationId(), key.getEventId()});
+            }
+            jdbcTemplate.batchUpdate(DELETE_SQL, args);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /** Próximos eventos desde {@code from}, por fecha; no incluye los que no tienen fecha. */
+    public Page<ExternalEvent> upcoming(LocalDateTime from, int page, int size) {
+        return repository.findUpcoming(from, PageRequest.of(page, size));
+    }
+
+    public synchronized int buffered() {
+        return buffer.size();
+    }
+
+    private void write(Collection<ExternalEvent> events) {
+        List<Object[]> args = new ArrayList<>(events.size());
+        for (ExternalEvent event : events) {
+            // dado de baja entre que se aceptó y ahora
+            if (cancellations.isCancelled(event.getOrganizationId(), event.getEventId())) {
+                continue;
+            }
+            args.add(new Object[]{event.getOrganizationId(), event.getEventId(), event.getEventName(),
+                    event.getDescription(), event.getEventDateTime(), Timestamp.from(event.getUpdatedAt())});
+        }
+        if (!args.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, args));
+        }
+    }
+
+    private void pauseListener() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container != null && !container.isPauseRequested()) {
+            container.pause();
+        }
+    }
+
+    private void resumeListener() {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(LISTENER_ID);
+        if (container != null && container.isPauseRequested()) {
+            log.info("Catálogo de eventos externos al día, se reanuda el consumo");
+            container.resume();
+        }
+    }
+
+    /** Acepta "2024-05-10T15:00", "2024-05-10 15:00" o solo la fecha; null si no se entiende. */
+    static LocalDateTime parseDateTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim().replace(' ', 'T');
+        try {
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            // puede venir solo la fecha
+        }
+        try {
+            return LocalDate.parse(text).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            log.debug("Fecha de evento externo no reconocida: {}", value);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.empuje.messaging.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.kafka.event.ListenerContainerIdleEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indica si el catálogo de eventos externos ya leyó eventos-solidarios hasta el final.
+ *
+ * Al asignarse las particiones se toman sus end offsets; cuando el listener llega a esas
+ * posiciones y el catálogo escribió lo leído, el indicador pasa a UP. Forma parte del grupo
+ * de readiness, así la instancia no recibe tráfico con un catálogo a medio cargar. Como el
+ * tópico es compactado, el tiempo de arranque depende de los eventos vigentes y no de la
+ * historia. Todo se llama desde el hilo del consumidor; solo health() se lee desde otro.
+ */
+@Slf4j
+@Component("externalEventCatchUp")
+@RequiredArgsConstructor
+public class ExternalEventCatchUp implements HealthIndicator {
+
+    private final ExternalEventCatalog catalog;
+
+    private volatile boolean ready;
+    private Collection<TopicPartition> assigned;
+    private Map<TopicPartition, Long> endOffsets;
+    private final long startNanos = System.nanoTime();
+
+    /** Particiones asignadas al listener; las end offsets se toman en el próximo check. */
+    public void onAssigned(Collection<TopicPartition> partitions) {
+        if (ready) {
+            return;
+        }
+        assigned = List.copyOf(partitions);
+        endOffsets = null;
+        if (assigned.isEmpty()) {
+            markReady();
+        }
+    }
+
+    public void check(Consumer<?, ?> consumer) {
+        if (ready || assigned == null) {
+            return;
+        }
+        if (endOffsets == null) {
+            endOffsets = consumer.endOffsets(assigned);
+        }
+        for (Map.Entry<TopicPartition, Long> e : endOffsets.entrySet()) {
+            if (consumer.position(e.getKey()) < e.getValue()) {
+                return;
+            }
+        }
+        try {
+            catalog.flush();
+        } catch (DataAccessException e) {
+            log.warn("Eventos externos leídos hasta el final, pero sin escribir: {}", e.getMessage());
+            return;
+        }
+        markReady();
+    }
+
+    /** Un tópico vacío, o con solo eventos propios, no llega a invocar al listener. */
+    @EventListener
+    public void onIdle(ListenerContainerIdleEvent event) {
+        if (!ready && !event.isPaused() && event.getListenerId().startsWith(ExternalEventCatalog.LISTENER_ID)) {
+            check(event.getConsumer());
+        }
+    }
+
+    @Override
+    public Health health() {
+        return ready ? Health.up().build() : Health.outOfService().withDetail("catalogo", "cargando eventos externos").build();
+    }
+
+    private void markReady() {
+        ready = true;
+        log.info("Catálogo de eventos externos al día en {} ms", (System.nanoTime() - startNanos) / 1_000_000);
+    }
+}
@@ -0,0 +1,88 @@
+package com.empuje.messaging.service;
+
+import com.empuje.inventoryservice.grpc.gen.AdjustQtyRequest;
+import com.empuje.inventoryservice.grpc.gen.AdjustQuantitiesRequest;
+import com.empuje.inventoryservice.grpc.gen.AdjustQuantitiesResponse;
+import com.empuje.inventoryservice.grpc.gen.Category;
+import com.empuje.inventoryservice.grpc.gen.InventoryServiceGrpc;
+import com.empuje.inventoryservice.grpc.gen.ItemResponse;
+import com.empuje.inventoryservice.grpc.gen.ListItemsRequest;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente gRPC de inventory-service. Los cambios de inventario pasan por su API, así su
+ * caché, sus totales por categoría y los suscriptores de WatchItems los ven; los errores
+ * de transporte (StatusRuntimeException) se propagan para que el lote se reintente.
+ */
+@Slf4j
+@Component
+public class InventoryClient {
+
+    private static final int LOOKUP_PAGE_SIZE = 100;
+
+    private final ManagedChannel channel;
+    private final InventoryServiceGrpc.InventoryServiceBlockingStub stub;
+    private final long deadlineMs;
+
+    public InventoryClient(@Value("${empuje.inventory.host:localhost}") String host,
+                           @Value("${empuje.inventory.port:50052}") int port,
+                           @Value("${empuje.inventory.deadline-ms:5000}") long deadlineMs) {
+        this.channel = ManagedChannelBuilder.forAddress(host, port).usePlaintext().build();
+        this.stub = InventoryServiceGrpc.newBlockingStub(channel);
+        this.deadlineMs = deadlineMs;
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        channel.shutdown().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Ítem no borrado de la categoría con esa descripción (sin distinguir mayúsculas); si hay
+     * varios, el de menor id.
+     *
+     * @return el id, o null si no hay ninguno
+     */
+    public Long findItemId(Category category, String description) {
+        Iterator<ItemResponse> items = stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
+                .listItems(ListItemsRequest.newBuilder()
+                        .setPageSize(LOOKUP_PAGE_SIZE)
+                        .setCategory(category)
+                        .setDescriptionPrefix(description)
+                        .build());
+        Long id = null;
+        while (items.hasNext()) {
+            ItemResponse item = items.next();
+            if (item.getDescription().equalsIgnoreCase(description) && (id == null || item.getId() < id)) {
+                id = item.getId();
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Suma {@code delta} al ítem con AdjustQuantities. Con la misma clave de idempotencia,
+     * inventory-service aplica el ajuste una sola vez aunque se llame de nuevo.
+     *
+     * @return false si el ítem ya no existe (se borró después de buscarlo)
+     */
+    public boolean increment(long itemId, int delta, String idempotencyKey) {
+        AdjustQuantitiesResponse response = stub.withDeadlineAfter(deadlineMs, TimeUnit.MILLISECONDS)
+                .adjustQuantities(AdjustQuantitiesRequest.newBuilder()
+                        .addAdjustments(AdjustQtyRequest.newBuilder().setId(itemId).setDelta(delta))
+                        .setIdempotencyKey(idempotencyKey)
+                        .build());
+        if (response.getReplayed()) {
+            log.debug("Ajuste {} ya aplicado en inventario", idempotencyKey);
+        }
+        return response.getSuccess();
+    }
+}
@@ -0,0 +1,192 @@
+package com.empuje.messaging.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de (categoría, palabra) a documentos, para encontrar ofertas y
+ * solicitudes compatibles sin recorrer todas. Una búsqueda solo visita los documentos que
+ * comparten al menos una palabra con la consulta en la misma categoría.
+ *
+ * El puntaje es Jaccard sobre las palabras normalizadas (sin tildes, minúsculas, sin
+ * palabras vacías y sin la "s" final del plural). Es seguro para uso concurrente.
+ *
+ * @param <T> valor asociado a cada documento
+ */
+public class MatchIndex<T> {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Set<String> STOPWORDS = Set.of(
+            "con", "del", "los", "las", "para", "por", "una", "uno", "unos", "unas",
+            "que", "sin", "sus", "otro", "otra", "otros", "otras", "tipo", "varios", "varias");
+
+    /** Entrada de un documento: una categoría y su texto libre. */
+    public record Entry(String category, String text) {
+    }
+
+    public record Candidate<T>(String key, T value, double score) {
+    }
+
+    /** Identidad por referencia: las listas de postings y el conteo no pagan equals/hashCode del valor. */
+    private static final class Document<T> {
+        final String key;
+        final T value;
+        final List<String> terms;
+
+        Document(String key, T value, List<String> terms) {
+            this.key = key;
+            this.value = value;
+            this.terms = terms;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Document<T>> documents = new HashMap<>();
+    private final Map<String, Set<Document<T>>> postings = new HashMap<>();
+
+    /** Agrega o reemplaza el documento {@code key}. */
+    public void put(String key, T value, Collection<Entry> entries) {
+        Set<String> terms = new LinkedHashSet<>();
+        for (Entry entry : entries) {
+            String category = normalizeCategory(entry.category());
+            if (category == null) {
+                continue;
+            }
+            for (String token : tokenize(entry.text())) {
+                terms.add(term(category, token));
+            }
+        }
+        List<String> termList = List.copyOf(terms);
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            Document<T> doc = new Document<>(key, value, termList);
+            documents.put(key, doc);
+            for (String term : termList) {
+                postings.computeIfAbsent(term, t -> new HashSet<>()).add(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String key) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Los {@code limit} documentos con mejor puntaje para una categoría y un texto,
+     * ordenados de mayor a menor; solo se devuelven los que alcanzan {@code minScore}.
+     */
+    public List<Candidate<T>> match(String category, String text, double minScore, int limit) {
+        String normalizedCategory = normalizeCategory(category);
+        List<String> tokens = tokenize(text);
+        if (normalizedCategory == null || tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Map<Document<T>, int[]> overlap = new HashMap<>();
+            for (String token : tokens) {
+                Set<Document<T>> docs = postings.get(term(normalizedCategory, token));
+                if (docs != null) {
+                    for (Document<T> doc : docs) {
+                        overlap.computeIfAbsent(doc, d -> new int[1])[0]++;
+                    }
+                }
+            }
+            PriorityQueue<Candidate<T>> best = new PriorityQueue<>(limit + 1, Comparator.comparingDouble(Candidate::score));
+            for (Map.Entry<Document<T>, int[]> e : overlap.entrySet()) {
+                Document<T> doc = e.getKey();
+                int shared = e.getValue()[0];
+                double score = (double) shared / (tokens.size() + doc.terms.size() - shared);
+                if (score < minScore) {
+                    continue;
+                }
+                if (best.size() < limit) {
+                    best.add(new Candidate<>(doc.key, doc.value, score));
+                } else if (score > best.peek().score()) {
+                    best.poll();
+                    best.add(new Candidate<>(doc.key, doc.value, score));
+                }
+            }
+            List<Candidate<T>> result = new ArrayList<>(best);
+            result.sort(Comparator.comparingDouble((Candidate<T> c) -> c.score()).reversed());
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean removeLocked(String key) {
+        Document<T> previous = documents.remove(key);
+        if (previous == null) {
+            return false;
+        }
+        for (String term : previous.terms) {
+            Set<Document<T>> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(previous);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        return true;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String plain = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String word : SEPARATORS.split(plain)) {
+            if (word.length() < 3 || STOPWORDS.contains(word)) {
+                continue;
+            }
+            tokens.add(word.length() > 4 && word.endsWith("s") ? word.substring(0, word.length() - 1) : word);
+        }
+        return List.copyOf(tokens);
+    }
+
+    private static String normalizeCategory(String category) {
+        if (category == null || category.isBlank()) {
+            return null;
+        }
+        return category.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private static String term(String category, String token) {
+        return category + '|' + token;
+    }
+}
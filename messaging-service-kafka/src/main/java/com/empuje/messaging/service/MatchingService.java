@@ -0,0 +1,210 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.config.KafkaRouting;
+import com.empuje.messaging.model.DonationMatchMessage;
+import com.empuje.messaging.model.DonationOfferMessage;
+import com.empuje.messaging.model.DonationRequestMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Cruza ofertas con solicitudes abiertas a medida que llegan, en los dos sentidos: cada
+ * oferta se busca entre las solicitudes y cada solicitud nueva entre las ofertas vigentes.
+ * Las coincidencias se publican en un tópico propio de la organización y las últimas
+ * quedan en memoria para la API.
+ *
+ * Las solicitudes las mantiene {@link OpenRequestView} (incluida la restauración y las
+ * bajas); las ofertas no tienen baja, así que se conservan las más recientes hasta
+ * {@code empuje.matching.max-open-offers}.
+ */
+@Slf4j
+@Service
+public class MatchingService {
+
+    private static final String MESSAGE_TYPE = DonationMatchMessage.class.getSimpleName();
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final KafkaRouting kafkaRouting;
+    private final String matchTopic;
+    private final double minScore;
+    private final int maxCandidates;
+    private final int maxOpenOffers;
+    private final int maxRecentMatches;
+    private final Counter emitted;
+
+    private final MatchIndex<DonationRequestMessage> requests = new MatchIndex<>();
+    private final MatchIndex<DonationOfferMessage> offers = new MatchIndex<>();
+    /** Orden de llegada de las ofertas indexadas, para descartar las más viejas. */
+    private final Map<String, Boolean> offerOrder = new LinkedHashMap<>();
+    private final Deque<DonationMatchMessage> recent = new ArrayDeque<>();
+
+    public MatchingService(KafkaTemplate<String, String> kafkaTemplate,
+                           ObjectMapper objectMapper,
+                           KafkaRouting kafkaRouting,
+                           MeterRegistry meterRegistry,
+                           @Value("${empuje.matching.min-score:0.3}") double minScore,
+                           @Value("${empuje.matching.max-candidates:10}") int maxCandidates,
+                           @Value("${empuje.matching.max-open-offers:50000}") int maxOpenOffers,
+                           @Value("${empuje.matching.max-recent-matches:1000}") int maxRecentMatches) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.kafkaRouting = kafkaRouting;
+        this.matchTopic = matchTopic(kafkaRouting.getOrganizationId());
+        this.minScore = minScore;
+        this.maxCandidates = maxCandidates;
+        this.maxOpenOffers = maxOpenOffers;
+        this.maxRecentMatches = maxRecentMatches;
+        this.emitted = Counter.builder("empuje.matching.matches").register(meterRegistry);
+        Gauge.builder("empuje.matching.open-offers", offers, MatchIndex::size).register(meterRegistry);
+    }
+
+    public static String matchTopic(String organizationId) {
+        return "coincidencia-donaciones-" + organizationId;
+    }
+
+    /** Indexa una solicitud sin buscar coincidencias; lo usa la vista al restaurarse. */
+    void indexRequest(String key, DonationRequestMessage request) {
+        requests.put(key, request, entries(request));
+    }
+
+    void removeRequest(String key) {
+        requests.remove(key);
+    }
+
+    /** Busca ofertas vigentes para una solicitud recién abierta (ya indexada por la vista). */
+    void matchRequest(DonationRequestMessage request) throws JsonProcessingException {
+        if (request.getDonations() == null) {
+            return;
+        }
+        for (DonationRequestMessage.DonationItem item : request.getDonations()) {
+            for (MatchIndex.Candidate<DonationOfferMessage> candidate
+                    : offers.match(item.getCategory(), item.getDescription(), minScore, maxCandidates)) {
+                DonationOfferMessage offer = candidate.value();
+                if (!Objects.equals(offer.getDonorOrganizationId(), request.getOrganizationId())) {
+                    emit(request, item, offer, candidate.score());
+                }
+            }
+        }
+    }
+
+    /** Indexa una oferta y la busca entre las solicitudes abiertas. */
+    public void onOffer(DonationOfferMessage offer) throws JsonProcessingException {
+        String key = offer.getDonorOrganizationId() + "|" + offer.getOfferId();
+        offers.put(key, offer, List.of(new MatchIndex.Entry(offer.getDonationCategory(), offer.getDonationDescription())));
+        evictOldOffers(key);
+
+        for (MatchIndex.Candidate<DonationRequestMessage> candidate
+                : requests.match(offer.getDonationCategory(), offer.getDonationDescription(), minScore, maxCandidates)) {
+            DonationRequestMessage request = candidate.value();
+            if (!Objects.equals(request.getOrganizationId(), offer.getDonorOrganizationId())) {
+                emit(request, bestItem(request, offer), offer, candidate.score());
+            }
+        }
+    }
+
+    /** Últimas coincidencias, de la más nueva a la más vieja; la organización es opcional. */
+    public List<DonationMatchMessage> recentMatches(String organizationId, int max) {
+        List<DonationMatchMessage> result = new ArrayList<>();
+        synchronized (recent) {
+            Iterator<DonationMatchMessage> it = recent.descendingIterator();
+            while (it.hasNext() && result.size() < max) {
+                DonationMatchMessage match = it.next();
+                if (organizationId == null
+                        || organizationId.equals(match.getRequestOrganizationId())
+                        || organizationId.equals(match.getDonorOrganizationId())) {
+                    result.add(match);
+                }
+            }
+        }
+        return result;
+    }
+
+    public void flush() {
+        kafkaTemplate.flush();
+    }
+
+    private void emit(DonationRequestMessage request, DonationRequestMessage.DonationItem item,
+                      DonationOfferMessage offer, double score) throws JsonProcessingException {
+        DonationMatchMessage match = DonationMatchMessage.builder()
+                .requestId(request.getRequestId())
+                .requestOrganizationId(request.getOrganizationId())
+                .offerId(offer.getOfferId())
+                .donorOrganizationId(offer.getDonorOrganizationId())
+                .category(item.getCategory())
+                .requestDescription(item.getDescription())
+                .offerDescription(offer.getDonationDescription())
+                .score(score)
+                .timestamp(LocalDateTime.now().toString())
+                .build();
+        kafkaTemplate.send(kafkaRouting.record(matchTopic, request.getOrganizationId() + "|" + request.getRequestId(),
+                objectMapper.writeValueAsString(match), MESSAGE_TYPE, kafkaRouting.getOrganizationId()));
+        emitted.increment();
+        synchronized (recent) {
+            recent.addLast(match);
+            if (recent.size() > maxRecentMatches) {
+                recent.removeFirst();
+            }
+        }
+        log.debug("Coincidencia: oferta {} de {} con solicitud {} de {} ({})", offer.getOfferId(),
+                offer.getDonorOrganizationId(), request.getRequestId(), request.getOrganizationId(), score);
+    }
+
+    private void evictOldOffers(String key) {
+        synchronized (offerOrder) {
+            offerOrder.remove(key);
+            offerOrder.put(key, Boolean.TRUE);
+            Iterator<String> it = offerOrder.keySet().iterator();
+            while (offerOrder.size() > maxOpenOffers && it.hasNext()) {
+                offers.remove(it.next());
+                it.remove();
+            }
+        }
+    }
+
+    /** El ítem de la solicitud que motivó la coincidencia: el de la categoría de la oferta con más palabras en común. */
+    private static DonationRequestMessage.DonationItem bestItem(DonationRequestMessage request, DonationOfferMessage offer) {
+        List<String> offerTokens = MatchIndex.tokenize(offer.getDonationDescription());
+        DonationRequestMessage.DonationItem best = request.getDonations().get(0);
+        long bestShared = -1;
+        for (DonationRequestMessage.DonationItem item : request.getDonations()) {
+            if (item.getCategory() == null || !item.getCategory().trim().equalsIgnoreCase(offer.getDonationCategory().trim())) {
+                continue;
+            }
+            long shared = MatchIndex.tokenize(item.getDescription()).stream().filter(offerTokens::contains).count();
+            if (shared > bestShared) {
+                best = item;
+                bestShared = shared;
+            }
+        }
+        return best;
+    }
+
+    private static List<MatchIndex.Entry> entries(DonationRequestMessage request) {
+        if (request.getDonations() == null) {
+            return List.of();
+        }
+        List<MatchIndex.Entry> entries = new ArrayList<>(request.getDonations().size());
+        for (DonationRequestMessage.DonationItem item : request.getDonations()) {
+            entries.add(new MatchIndex.Entry(item.getCategory(), item.getDescription()));
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,144 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.model.ProcessedMessage;
+import com.empuje.messaging.repository.ProcessedMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Registro de mensajes ya procesados, para que una re-entrega de Kafka (por ejemplo tras un
+ * rebalanceo) no se aplique dos veces.
+ *
+ * La tabla processed_messages es la fuente de verdad; delante hay dos filtros de Bloom (la
+ * generación actual y la anterior) con todas las claves de la ventana. Si ninguno contiene
+ * la clave, el mensaje seguro es nuevo y no se consulta la base: ese es el caso normal.
+ * Solo ante un posible duplicado se confirma contra la tabla.
+ *
+ * Cada {@code window} se rota de generación y se borran de la tabla las claves más viejas
+ * que la ventana; una clave queda en algún filtro al menos ese tiempo, así que el filtro
+ * nunca olvida algo que la tabla todavía recuerda.
+ */
+@Slf4j
+@Service
+public class MessageDeduplicator {
+
+    private static final String INSERT_SQL =
+            "INSERT IGNORE INTO processed_messages (message_key, processed_at) VALUES (?, ?)";
+
+    private final ProcessedMessageRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration window;
+    private final long expectedPerWindow;
+    private final double falsePositiveRate;
+
+    private final Counter bloomNegatives;
+    private final Counter confirmedDuplicates;
+    private final Counter falsePositives;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+
+    public MessageDeduplicator(ProcessedMessageRepository repository,
+                               JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${empuje.dedup.window-hours:168}") long windowHours,
+                               @Value("${empuje.dedup.expected-messages:100000}") long expectedPerWindow,
+                               @Value("${empuje.dedup.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.repository = repository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.window = Duration.ofHours(windowHours);
+        this.expectedPerWindow = expectedPerWindow;
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = newFilter();
+        this.previous = newFilter();
+        this.bloomNegatives = checks(meterRegistry, "bloom-negative");
+        this.confirmedDuplicates = checks(meterRegistry, "duplicate");
+        this.falsePositives = checks(meterRegistry, "false-positive");
+    }
+
+    /** Carga en el filtro las claves de la ventana que quedaron en la tabla. */
+    @PostConstruct
+    void load() {
+        Timestamp since = Timestamp.from(Instant.now().minus(window));
+        long[] loaded = {0};
+        BloomFilter filter = current;
+        jdbcTemplate.query("SELECT message_key FROM processed_messages WHERE processed_at >= ?",
+                rs -> {
+                    filter.put(rs.getString(1));
+                    loaded[0]++;
+                }, since);
+        log.info("Deduplicación: {} claves cargadas", loaded[0]);
+    }
+
+    /**
+     * Devuelve cuáles de las claves ya fueron procesadas. Solo consulta la base por las que
+     * el filtro de Bloom no puede descartar, y con una sola consulta.
+     */
+    public Set<String> findProcessed(Collection<String> keys) {
+        List<String> candidates = new ArrayList<>();
+        for (String key : keys) {
+            if (current.mightContain(key) || previous.mightContain(key)) {
+                candidates.add(key);
+            } else {
+                bloomNegatives.increment();
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> processed = new HashSet<>();
+        for (ProcessedMessage message : repository.findAllById(candidates)) {
+            processed.add(message.getMessageKey());
+        }
+        confirmedDuplicates.increment(processed.size());
+        falsePositives.increment(candidates.size() - processed.size());
+        return processed;
+    }
+
+    /** Registra las claves como procesadas, en un solo batch. */
+    public void markProcessed(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> args = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            args.add(new Object[]{key, now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+        BloomFilter filter = current;
+        keys.forEach(filter::put);
+    }
+
+    @Scheduled(fixedRateString = "#{${empuje.dedup.window-hours:168} * 3600000}",
+               initialDelayString = "#{${empuje.dedup.window-hours:168} * 3600000}")
+    public void rotate() {
+        previous = current;
+        current = newFilter();
+        int purged = repository.deleteProcessedBefore(Instant.now().minus(window));
+        log.info("Deduplicación: generación rotada, {} claves vencidas eliminadas", purged);
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(expectedPerWindow, falsePositiveRate);
+    }
+
+    private static Counter checks(MeterRegistry registry, String result) {
+        return Counter.builder("empuje.dedup.checks").tag("result", result).register(registry);
+    }
+}
@@ -0,0 +1,265 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.config.KafkaRouting;
+import com.empuje.messaging.model.DonationRequestMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Vista materializada de las solicitudes de donación de la red (las nuestras incluidas)
+ * que siguen abiertas: "solicitud-donaciones" menos "baja-solicitud-donaciones".
+ *
+ * El estado vive en memoria, indexado por organización y por categoría, así que las
+ * consultas no tocan ni la base ni Kafka. Cada cambio se escribe además en un tópico
+ * compactado propio (clave organización|solicitud, tombstone para las bajas); al arrancar
+ * se reconstruye leyendo ese changelog, que tiene una entrada por solicitud abierta, en
+ * lugar de reprocesar los dos tópicos de origen.
+ */
+@Slf4j
+@Service
+public class OpenRequestView {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+    private static final int MAX_EARLY_CANCELLATIONS = 10_000;
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final ObjectMapper objectMapper;
+    private final MatchingService matching;
+    private final String changelogTopic;
+    private final ChangelogWriter changelog;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, DonationRequestMessage> byKey = new HashMap<>();
+    private final Map<String, Map<String, DonationRequestMessage>> byOrganization = new HashMap<>();
+    private final Map<String, Map<String, DonationRequestMessage>> byCategory = new HashMap<>();
+
+    /** Bajas que llegaron antes que su solicitud (son tópicos distintos, sin orden entre sí). */
+    private final Map<String, Boolean> earlyCancellations = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > MAX_EARLY_CANCELLATIONS;
+        }
+    };
+
+    public OpenRequestView(KafkaTemplate<String, String> kafkaTemplate,
+                           ConsumerFactory<String, String> consumerFactory,
+                           ObjectMapper objectMapper,
+                           MatchingService matching,
+                           KafkaRouting kafkaRouting,
+                           MeterRegistry meterRegistry) {
+        this.consumerFactory = consumerFactory;
+        this.objectMapper = objectMapper;
+        this.matching = matching;
+        this.changelogTopic = changelogTopic(kafkaRouting.getOrganizationId());
+        this.changelog = new ChangelogWriter(kafkaTemplate, changelogTopic, this::currentValue);
+        Gauge.builder("empuje.open-requests.size", this, OpenRequestView::size).register(meterRegistry);
+    }
+
+    public static String changelogTopic(String organizationId) {
+        return "solicitudes-abiertas-" + organizationId + "-changelog";
+    }
+
+    /**
+     * Reconstruye el estado desde el changelog. Corre antes de que arranquen los listeners,
+     * así ningún cambio nuevo queda pisado por uno viejo.
+     */
+    @PostConstruct
+    void restore() {
+        long start = System.nanoTime();
+        int records = 0;
+        try (Consumer<String, String> consumer = consumerFactory.createConsumer("empuje-open-requests-restore", "restore")) {
+            List<PartitionInfo> infos = consumer.partitionsFor(changelogTopic);
+            if (infos == null || infos.isEmpty()) {
+                return;
+            }
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (PartitionInfo info : infos) {
+                partitions.add(new TopicPartition(changelogTopic, info.partition()));
+            }
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> end = consumer.endOffsets(partitions);
+            while (!reachedEnd(consumer, end)) {
+                for (ConsumerRecord<String, String> record : consumer.poll(POLL_TIMEOUT)) {
+                    records++;
+                    if (record.value() == null) {
+                        removeLocal(record.key());
+                    } else {
+                        putLocal(record.key(), objectMapper.readValue(record.value(), DonationRequestMessage.class));
+                    }
+                }
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Changelog de solicitudes abiertas ilegible", e);
+        }
+        log.info("Solicitudes abiertas restauradas: {} ({} registros del changelog en {} ms)",
+                size(), records, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public void open(DonationRequestMessage request) throws JsonProcessingException {
+        String key = key(request.getOrganizationId(), request.getRequestId());
+        lock.writeLock().lock();
+        try {
+            if (earlyCancellations.remove(key) != null) {
+                return;
+            }
+            putLocal(key, request);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        changelog.send(key, objectMapper.writeValueAsString(request));
+        matching.matchRequest(request);
+    }
+
+    public void close(String organizationId, String requestId) {
+        String key = key(organizationId, requestId);
+        lock.writeLock().lock();
+        try {
+            if (removeLocal(key) == null) {
+                earlyCancellations.put(key, Boolean.TRUE);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        changelog.send(key, null);
+    }
+
+    /**
+     * Espera a que el changelog tenga los cambios aplicados hasta ahora; se llama antes de
+     * confirmar un lote y lanza KafkaException si alguna escritura falló.
+     */
+    public void flush() {
+        changelog.flush();
+    }
+
+    /** Solicitudes abiertas; organización y categoría son opcionales. */
+    public List<DonationRequestMessage> find(String organizationId, String category) {
+        lock.readLock().lock();
+        try {
+            Map<String, DonationRequestMessage> candidates;
+            if (organizationId != null && category != null) {
+                Map<String, DonationRequestMessage> org = byOrganization.getOrDefault(organizationId, Map.of());
+                Map<String, DonationRequestMessage> cat = byCategory.getOrDefault(category, Map.of());
+                Map<String, DonationRequestMessage> small = org.size() <= cat.size() ? org : cat;
+                Map<String, DonationRequestMessage> large = small == org ? cat : org;
+                List<DonationRequestMessage> result = new ArrayList<>();
+                for (Map.Entry<String, DonationRequestMessage> e : small.entrySet()) {
+                    if (large.containsKey(e.getKey())) {
+                        result.add(e.getValue());
+                    }
+                }
+                return result;
+            } else if (organizationId != null) {
+                candidates = byOrganization.getOrDefault(organizationId, Map.of());
+            } else if (category != null) {
+                candidates = byCategory.getOrDefault(category, Map.of());
+            } else {
+                candidates = byKey;
+            }
+            return new ArrayList<>(candidates.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return byKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putLocal(String key, DonationRequestMessage request) {
+        removeLocal(key);
+        byKey.put(key, request);
+        matching.indexRequest(key, request);
+        byOrganization.computeIfAbsent(request.getOrganizationId(), k -> new HashMap<>()).put(key, request);
+        for (String category : categories(request)) {
+            byCategory.computeIfAbsent(category, k -> new HashMap<>()).put(key, request);
+        }
+    }
+
+    private DonationRequestMessage removeLocal(String key) {
+        DonationRequestMessage previous = byKey.remove(key);
+        if (previous != null) {
+            matching.removeRequest(key);
+            removeFromIndex(byOrganization, previous.getOrganizationId(), key);
+            for (String category : categories(previous)) {
+                removeFromIndex(byCategory, category, key);
+            }
+        }
+        return previous;
+    }
+
+    private static void removeFromIndex(Map<String, Map<String, DonationRequestMessage>> index, String value, String key) {
+        Map<String, DonationRequestMessage> entries = index.get(value);
+        if (entries != null) {
+            entries.remove(key);
+            if (entries.isEmpty()) {
+                index.remove(value);
+            }
+        }
+    }
+
+    private static List<String> categories(DonationRequestMessage request) {
+        if (request.getDonations() == null) {
+            return Collections.emptyList();
+        }
+        List<String> categories = new ArrayList<>(request.getDonations().size());
+        for (DonationRequestMessage.DonationItem item : request.getDonations()) {
+            if (item.getCategory() != null && !categories.contains(item.getCategory())) {
+                categories.add(item.getCategory());
+            }
+        }
+        return categories;
+    }
+
+    /** Lo que el changelog tiene que tener para la clave: la solicitud abierta o un tombstone. */
+    private String currentValue(String key) {
+        lock.readLock().lock();
+        try {
+            DonationRequestMessage request = byKey.get(key);
+            return request == null ? null : objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Solicitud abierta no serializable: " + key, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String key(String organizationId, String requestId) {
+        return organizationId + "|" + requestId;
+    }
+
+    private static boolean reachedEnd(Consumer<String, String> consumer, Map<TopicPartition, Long> end) {
+        for (Map.Entry<TopicPartition, Long> e : end.entrySet()) {
+            if (consumer.position(e.getKey()) < e.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,185 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.model.OutboxMessage;
+import com.empuje.messaging.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vacía outbox_messages hacia Kafka por lotes: toma los registros más viejos (bloqueados con
+ * SKIP LOCKED, así varias instancias no se pisan), los envía todos sin esperar uno por uno,
+ * espera los acks y borra los confirmados en la misma transacción.
+ *
+ * Los envíos salen en orden de id; como la clave decide la partición y el productor es
+ * idempotente, los mensajes de una misma clave llegan en el orden en que se escribieron.
+ * Un envío fallido queda en la tabla con su error y se reintenta en la vuelta siguiente,
+ * y con él todos los mensajes posteriores de la misma clave (tópico y clave) del lote,
+ * aunque Kafka ya los haya confirmado: se reenvían detrás del fallido, así el último que
+ * ve el consumidor sigue siendo el último escrito. Si la instancia cae entre el ack y el
+ * commit, el lote se reenvía y la deduplicación de los consumidores descarta la copia.
+ *
+ * Un mensaje que falla empuje.outbox.max-attempts veces se aparta (parked_at) para que no
+ * frene su clave para siempre; queda en la tabla con su último error y se cuenta en
+ * empuje.outbox.relayed{result=parked}.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    private final OutboxMessageRepository repository;
+    private final OutboxService outbox;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration sendTimeout;
+    private final int maxAttempts;
+
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter held;
+    private final Counter parked;
+    private final Timer batchTimer;
+    private final AtomicLong oldestPendingMs = new AtomicLong();
+
+    public OutboxRelay(OutboxMessageRepository repository,
+                       OutboxService outbox,
+                       KafkaTemplate<String, String> kafkaTemplate,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${empuje.outbox.batch-size:500}") int batchSize,
+                       @Value("${empuje.outbox.send-timeout-ms:10000}") long sendTimeoutMs,
+                       @Value("${empuje.outbox.max-attempts:10}") int maxAttempts) {
+        this.repository = repository;
+        this.outbox = outbox;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeout = Duration.ofMillis(sendTimeoutMs);
+        this.maxAttempts = maxAttempts;
+        this.sent = Counter.builder("empuje.outbox.relayed").tag("result", "sent").register(meterRegistry);
+        this.failed = Counter.builder("empuje.outbox.relayed").tag("result", "failed").register(meterRegistry);
+        this.held = Counter.builder("empuje.outbox.relayed").tag("result", "held").register(meterRegistry);
+        this.parked = Counter.builder("empuje.outbox.relayed").tag("result", "parked").register(meterRegistry);
+        this.batchTimer = Timer.builder("empuje.outbox.batch").register(meterRegistry);
+        Gauge.builder("empuje.outbox.oldest-pending-ms", oldestPendingMs, AtomicLong::get).register(meterRegistry);
+    }
+
+    /** Sigue con el lote siguiente mientras los lotes salgan llenos y sin errores. */
+    @Scheduled(fixedDelayString = "${empuje.outbox.poll-interval-ms:200}")
+    public void relay() {
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    /** @return mensajes publicados, o -1 si alguno falló o quedó retenido detrás de uno fallido */
+    private int relayBatch() {
+        List<OutboxMessage> batch = repository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            oldestPendingMs.set(0);
+            return 0;
+        }
+        oldestPendingMs.set(Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+        long start = System.nanoTime();
+
+        // Claves con un envío fallido en este lote: lo que sigue de esa clave no sale.
+        Set<String> blocked = new HashSet<>();
+        List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            String key = orderingKey(message);
+            if (key != null && blocked.contains(key)) {
+                sends.add(null);
+                continue;
+            }
+            try {
+                sends.add(kafkaTemplate.send(outbox.toRecord(message)));
+            } catch (Exception e) {
+                sends.add(CompletableFuture.failedFuture(e));
+                if (key != null) {
+                    blocked.add(key);
+                }
+            }
+        }
+        kafkaTemplate.flush();
+
+        blocked.clear();
+        List<Long> delivered = new ArrayList<>(batch.size());
+        int failures = 0;
+        int retained = 0;
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxMessage message = batch.get(i);
+            String key = orderingKey(message);
+            if (sends.get(i) == null || key != null && blocked.contains(key)) {
+                retained++;
+                continue;
+            }
+            try {
+                sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                delivered.add(message.getId());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Relay del outbox interrumpido", e);
+            } catch (ExecutionException | TimeoutException e) {
+                failures++;
+                Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                message.setAttempts(message.getAttempts() + 1);
+                message.setLastError(truncate(cause.getClass().getSimpleName() + ": " + cause.getMessage()));
+                if (message.getAttempts() >= maxAttempts) {
+                    message.setParkedAt(Instant.now());
+                    parked.increment();
+                    log.error("Mensaje {} del outbox apartado tras {} intentos de publicarlo en {}: {}",
+                            message.getId(), message.getAttempts(), message.getTopic(), cause.getMessage());
+                } else {
+                    log.warn("Error publicando mensaje {} del outbox en {} (intento {}): {}",
+                            message.getId(), message.getTopic(), message.getAttempts(), cause.getMessage());
+                    if (key != null) {
+                        blocked.add(key);
+                    }
+                }
+            }
+        }
+        if (!delivered.isEmpty()) {
+            repository.deleteAllByIdInBatch(delivered);
+        }
+        sent.increment(delivered.size());
+        failed.increment(failures);
+        held.increment(retained);
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.debug("Lote del outbox publicado: {} de {} mensajes ({} retenidos detrás de un fallo)",
+                delivered.size(), batch.size(), retained);
+        return failures == 0 && retained == 0 ? delivered.size() : -1;
+    }
+
+    /** Tópico y clave, que deciden la partición; sin clave no hay orden que cuidar. */
+    private static String orderingKey(OutboxMessage message) {
+        return message.getMessageKey() == null ? null : message.getTopic() + "|" + message.getMessageKey();
+    }
+
+    private static String truncate(String error) {
+        return error.length() <= 500 ? error : error.substring(0, 500);
+    }
+}
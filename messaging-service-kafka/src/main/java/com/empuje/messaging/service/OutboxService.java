@@ -0,0 +1,73 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.model.OutboxMessage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publicación confiable: en lugar de enviar a Kafka, los productores dejan los registros en
+ * outbox_messages dentro de la transacción del llamador. Si la transacción confirma, los
+ * mensajes se publican tarde o temprano (ver OutboxRelay); si no, no se publican nunca.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_messages (topic, message_key, payload, headers, created_at, attempts) VALUES (?, ?, ?, ?, ?, 0)";
+
+    private static final TypeReference<LinkedHashMap<String, String>> HEADERS = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /** Escribe los registros, en orden, con un único batch JDBC. */
+    @Transactional
+    public void enqueue(List<ProducerRecord<String, String>> records) throws JsonProcessingException {
+        if (records.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> args = new ArrayList<>(records.size());
+        for (ProducerRecord<String, String> record : records) {
+            // payload vacío = tombstone: ningún mensaje válido es una cadena vacía
+            args.add(new Object[]{record.topic(), record.key(), record.value() == null ? "" : record.value(), headers(record), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+
+    ProducerRecord<String, String> toRecord(OutboxMessage message) throws JsonProcessingException {
+        String payload = message.getPayload().isEmpty() ? null : message.getPayload();
+        ProducerRecord<String, String> record = new ProducerRecord<>(message.getTopic(), message.getMessageKey(), payload);
+        if (message.getHeaders() != null) {
+            for (Map.Entry<String, String> header : objectMapper.readValue(message.getHeaders(), HEADERS).entrySet()) {
+                record.headers().add(header.getKey(), header.getValue().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return record;
+    }
+
+    private String headers(ProducerRecord<String, String> record) throws JsonProcessingException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (Header header : record.headers()) {
+            headers.put(header.key(), new String(header.value(), StandardCharsets.UTF_8));
+        }
+        return headers.isEmpty() ? null : objectMapper.writeValueAsString(headers);
+    }
+}
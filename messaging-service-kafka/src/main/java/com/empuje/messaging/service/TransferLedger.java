@@ -0,0 +1,156 @@
+package com.empuje.messaging.service;
+
+import com.empuje.inventoryservice.grpc.gen.Category;
+import com.empuje.messaging.model.DonationTransferMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Aplica al inventario las transferencias recibidas, una sola vez cada una.
+ *
+ * El ajuste va por la API de inventory-service (InventoryClient) con el id de la
+ * transferencia como clave de idempotencia, así que repetirlo no suma dos veces.
+ * transfer_ledger guarda después cada transferencia aplicada junto con el registro de
+ * Kafka que la trajo. Si vuelve a llegar el mismo registro (la transacción de Kafka del
+ * lote abortó después de que el ledger se escribió), no se ajusta de nuevo pero se vuelve
+ * a devolver para que se confirme; si llega otro registro con la misma transferencia
+ * (una republicación), se descarta.
+ *
+ * El ajuste suma la cantidad al ítem no borrado de la misma categoría y descripción.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TransferLedger {
+
+    public static final String APPLIED = "APLICADA";
+    public static final String NO_ITEM = "SIN_ITEM";
+    public static final String INVALID_QUANTITY = "CANTIDAD_INVALIDA";
+
+    private static final Pattern QUANTITY = Pattern.compile("\\d+");
+    private static final String IDEMPOTENCY_PREFIX = "transferencia:";
+
+    private static final String SELECT_SQL =
+            "SELECT transfer_id, source, status FROM transfer_ledger WHERE transfer_id IN (:ids)";
+    private static final String INSERT_SQL =
+            "INSERT INTO transfer_ledger (transfer_id, request_id, donor_organization_id, status, source, applied_at) "
+            + "VALUES (:transferId, :requestId, :donor, :status, :source, :appliedAt)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final InventoryClient inventory;
+
+    /** Transferencia leída de {@code source} (tópico-partición@offset). */
+    public record Received(String transferId, String source, DonationTransferMessage message) {
+    }
+
+    /** Transferencia que hay que confirmar al donante, con el resultado del ajuste. */
+    public record Outcome(DonationTransferMessage message, String status) {
+    }
+
+    /**
+     * Aplica las transferencias nuevas del lote: una consulta al ledger, un ajuste en
+     * inventory-service por transferencia y un batch de inserts. Si inventory-service no
+     * responde, la excepción corta el lote antes de escribir el ledger y se reintenta.
+     *
+     * @return las transferencias a confirmar; no incluye las republicadas
+     */
+    public List<Outcome> apply(List<Received> transfers) {
+        if (transfers.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Received> byId = new LinkedHashMap<>();
+        for (Received transfer : transfers) {
+            byId.putIfAbsent(transfer.transferId(), transfer);
+        }
+        Map<String, String[]> known = new HashMap<>();
+        jdbcTemplate.query(SELECT_SQL, new MapSqlParameterSource("ids", byId.keySet()), rs -> {
+            known.put(rs.getString(1), new String[]{rs.getString(2), rs.getString(3)});
+        });
+
+        List<Outcome> outcomes = new ArrayList<>(byId.size());
+        List<MapSqlParameterSource> rows = new ArrayList<>();
+        Timestamp now = Timestamp.from(Instant.now());
+        for (Received transfer : byId.values()) {
+            String[] previous = known.get(transfer.transferId());
+            if (previous == null) {
+                String status = adjustInventory(transfer);
+                rows.add(new MapSqlParameterSource()
+                        .addValue("transferId", transfer.transferId())
+                        .addValue("requestId", transfer.message().getRequestId())
+                        .addValue("donor", transfer.message().getDonorOrganizationId())
+                        .addValue("status", status)
+                        .addValue("source", transfer.source())
+                        .addValue("appliedAt", now));
+                outcomes.add(new Outcome(transfer.message(), status));
+            } else if (previous[0].equals(transfer.source())) {
+                outcomes.add(new Outcome(transfer.message(), previous[1]));
+            } else {
+                log.debug("Transferencia {} ya aplicada desde {}, se descarta", transfer.transferId(), previous[0]);
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows.toArray(new MapSqlParameterSource[0]));
+        }
+        return outcomes;
+    }
+
+    private String adjustInventory(Received transfer) {
+        DonationTransferMessage message = transfer.message();
+        Integer delta = quantity(message.getQuantity());
+        if (delta == null) {
+            return INVALID_QUANTITY;
+        }
+        Category category = category(message.getDonationCategory());
+        if (category == null || message.getDonationDescription() == null) {
+            return NO_ITEM;
+        }
+        Long itemId = inventory.findItemId(category, message.getDonationDescription());
+        if (itemId == null) {
+            return NO_ITEM;
+        }
+        return inventory.increment(itemId, delta, IDEMPOTENCY_PREFIX + transfer.transferId()) ? APPLIED : NO_ITEM;
+    }
+
+    /** La cantidad es texto libre ("10", "10 kg"): se toma el primer número. */
+    private static Integer quantity(String quantity) {
+        if (quantity == null) {
+            return null;
+        }
+        Matcher matcher = QUANTITY.matcher(quantity);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            int value = Integer.parseInt(matcher.group());
+            return value > 0 ? value : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Category category(String category) {
+        if (category == null) {
+            return null;
+        }
+        try {
+            Category value = Category.valueOf(category.trim().toUpperCase(Locale.ROOT).replace(' ', '_'));
+            return value == Category.CATEGORY_UNKNOWN || value == Category.UNRECOGNIZED ? null : value;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
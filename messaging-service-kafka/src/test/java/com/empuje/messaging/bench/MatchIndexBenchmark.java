@@ -0,0 +1,108 @@
+package com.empuje.messaging.bench;
+
+import com.empuje.messaging.model.DonationRequestMessage;
+import com.empuje.messaging.service.MatchIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Una oferta contra N solicitudes abiertas: {@link MatchIndex} frente a recorrer todas las
+ * solicitudes comparando palabras, que es lo que haría falta sin índice.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchIndexBenchmark {
+
+    private static final String[] CATEGORIES = {"ALIMENTOS", "ROPA", "JUGUETES", "UTILES_ESCOLARES"};
+    private static final String[] WORDS = {
+            "arroz", "fideos", "leche", "polvo", "aceite", "harina", "azucar", "yerba", "lentejas", "atun",
+            "campera", "abrigo", "pantalon", "remera", "zapatillas", "medias", "buzo", "talle", "nino", "adulto",
+            "pelota", "muneca", "rompecabezas", "bloques", "peluche", "auto", "libro", "cuaderno", "lapices", "mochila",
+            "regla", "goma", "cartuchera", "colores", "tijera", "invierno", "verano", "paquete", "kilo", "litro"};
+
+    @Param({"100000"})
+    public int openRequests;
+
+    private MatchIndex<DonationRequestMessage> index;
+    private List<DonationRequestMessage> requests;
+    private String[] offerCategories;
+    private String[] offerDescriptions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new MatchIndex<>();
+        requests = new ArrayList<>(openRequests);
+        for (int i = 0; i < openRequests; i++) {
+            String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            DonationRequestMessage request = DonationRequestMessage.builder()
+                    .organizationId("org-" + random.nextInt(50))
+                    .requestId("req-" + i)
+                    .donations(List.of(DonationRequestMessage.DonationItem.builder()
+                            .category(category)
+                            .description(description(random))
+                            .quantity("1")
+                            .build()))
+                    .build();
+            requests.add(request);
+            index.put(request.getOrganizationId() + "|" + request.getRequestId(), request,
+                    List.of(new MatchIndex.Entry(category, request.getDonations().get(0).getDescription())));
+        }
+        offerCategories = new String[1024];
+        offerDescriptions = new String[1024];
+        for (int i = 0; i < offerCategories.length; i++) {
+            offerCategories[i] = CATEGORIES[random.nextInt(CATEGORIES.length)];
+            offerDescriptions[i] = description(random);
+        }
+    }
+
+    @Benchmark
+    public List<MatchIndex.Candidate<DonationRequestMessage>> index() {
+        int i = next++ & (offerCategories.length - 1);
+        return index.match(offerCategories[i], offerDescriptions[i], 0.3, 10);
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole bh) {
+        int i = next++ & (offerCategories.length - 1);
+        List<String> offerWords = List.of(offerDescriptions[i].split(" "));
+        for (DonationRequestMessage request : requests) {
+            DonationRequestMessage.DonationItem item = request.getDonations().get(0);
+            if (!item.getCategory().equals(offerCategories[i])) {
+                continue;
+            }
+            String[] words = item.getDescription().split(" ");
+            int shared = 0;
+            for (String word : words) {
+                if (offerWords.contains(word)) {
+                    shared++;
+                }
+            }
+            if ((double) shared / (offerWords.size() + words.length - shared) >= 0.3) {
+                bh.consume(request);
+            }
+        }
+    }
+
+    private static String description(Random random) {
+        int words = 2 + random.nextInt(3);
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
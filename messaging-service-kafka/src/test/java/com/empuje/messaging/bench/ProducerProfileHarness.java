@@ -0,0 +1,91 @@
+package com.empuje.messaging.bench;
+
+import com.empuje.messaging.config.KafkaConfig;
+import com.empuje.messaging.config.ProducerProfile;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publica N mensajes con cada perfil de productor contra un Kafka real e informa mensajes
+ * por segundo y latencia hasta el ack.
+ *
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.empuje.messaging.bench.ProducerProfileHarness \
+ *     -Dexec.args="localhost:9092 bench-productor 200000 512"
+ * </pre>
+ *
+ * Argumentos: bootstrap servers, tópico, mensajes por perfil, tamaño del payload en bytes.
+ */
+public class ProducerProfileHarness {
+
+    public static void main(String[] args) throws Exception {
+        String bootstrap = args.length > 0 ? args[0] : "localhost:9092";
+        String topic = args.length > 1 ? args[1] : "bench-productor";
+        int messages = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+        int payloadSize = args.length > 3 ? Integer.parseInt(args[3]) : 512;
+
+        String[] payloads = payloads(payloadSize);
+        for (ProducerProfile profile : ProducerProfile.values()) {
+            run(bootstrap, topic, profile, messages, payloads);
+        }
+    }
+
+    private static void run(String bootstrap, String topic, ProducerProfile profile, int messages, String[] payloads)
+            throws InterruptedException {
+        long[] latencies = new long[messages];
+        AtomicLong failures = new AtomicLong();
+        CountDownLatch acked = new CountDownLatch(messages);
+
+        try (KafkaProducer<String, String> producer =
+                     new KafkaProducer<>(KafkaConfig.producerProperties(bootstrap, profile))) {
+            // calienta la conexión y la metadata del tópico fuera de la medición
+            producer.send(new ProducerRecord<>(topic, "warmup", payloads[0])).get();
+
+            long begin = System.nanoTime();
+            for (int i = 0; i < messages; i++) {
+                int n = i;
+                long sent = System.nanoTime();
+                producer.send(new ProducerRecord<>(topic, "org-" + (i % 50), payloads[i % payloads.length]), (metadata, ex) -> {
+                    latencies[n] = System.nanoTime() - sent;
+                    if (ex != null) {
+                        failures.incrementAndGet();
+                    }
+                    acked.countDown();
+                });
+            }
+            acked.await();
+            long elapsed = System.nanoTime() - begin;
+
+            Arrays.sort(latencies);
+            System.out.printf("%-10s messages=%d failures=%d elapsed=%.2fs throughput=%.0f msg/s"
+                            + " ack p50=%.2fms p99=%.2fms max=%.2fms%n",
+                    profile, messages, failures.get(), elapsed / 1e9, messages / (elapsed / 1e9),
+                    latencies[messages / 2] / 1e6, latencies[(int) (messages * 0.99)] / 1e6, latencies[messages - 1] / 1e6);
+        } catch (ExecutionException e) {
+            System.out.printf("%-10s no se pudo publicar: %s%n", profile, e.getCause().getMessage());
+        }
+    }
+
+    /** Payloads JSON con texto repetitivo, como los mensajes reales, para que la compresión tenga qué hacer. */
+    private static String[] payloads(int size) {
+        String[] words = {"arroz", "fideos", "leche", "campera", "abrigo", "pelota", "cuaderno", "lapices", "ALIMENTOS", "ROPA"};
+        Random random = new Random(42);
+        String[] payloads = new String[64];
+        for (int p = 0; p < payloads.length; p++) {
+            StringBuilder sb = new StringBuilder("{\"organizationId\":\"org-").append(p)
+                    .append("\",\"requestId\":\"").append(p).append("\",\"description\":\"");
+            while (sb.length() < size - 2) {
+                sb.append(words[random.nextInt(words.length)]).append(' ');
+            }
+            payloads[p] = sb.append("\"}").toString();
+        }
+        return payloads;
+    }
+}
@@ -0,0 +1,126 @@
+package com.empuje.messaging.bench;
+
+import com.empuje.messaging.config.KafkaRouting;
+import com.empuje.messaging.config.LocalSchemaRegistry;
+import com.empuje.messaging.config.PartnerFormats;
+import com.empuje.messaging.config.WireFormatDeserializer;
+import com.empuje.messaging.config.WireFormatSerializer;
+import com.empuje.messaging.model.DonationRequestMessage;
+import com.empuje.messaging.model.DonationTransferMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formato actual (JSON) contra Avro por WireFormatSerializer/WireFormatDeserializer, para
+ * una solicitud con varios ítems y una transferencia. Cada operación incluye lo que hace
+ * la aplicación completa: escribir parte del objeto y leer termina en el objeto. El tamaño
+ * de cada payload se imprime al preparar el estado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final String TARGET = "org-destino";
+
+    @Param({"DonationRequestMessage", "DonationTransferMessage"})
+    public String messageType;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private WireFormatSerializer serializer;
+    private WireFormatDeserializer deserializer;
+
+    private Object message;
+    private Class<?> type;
+    private byte[] json;
+    private byte[] avro;
+    private Headers avroHeaders;
+
+    @Setup
+    public void setUp() throws Exception {
+        LocalSchemaRegistry schemas = new LocalSchemaRegistry();
+        PartnerFormats partners = new PartnerFormats(TARGET, Set.of());
+        serializer = new WireFormatSerializer(schemas, partners, true, false);
+        deserializer = new WireFormatDeserializer(schemas, partners, TARGET);
+
+        message = messageType.equals("DonationRequestMessage") ? request() : transfer();
+        type = message.getClass();
+        json = objectMapper.writeValueAsBytes(message);
+        avroHeaders = headers();
+        avro = serializer.serialize("bench", avroHeaders, new String(json, StandardCharsets.UTF_8));
+
+        Object roundTrip = objectMapper.readValue(deserializer.deserialize("bench", avroHeaders, avro), type);
+        if (!roundTrip.equals(message)) {
+            throw new IllegalStateException("Avro no reproduce el mensaje: " + roundTrip);
+        }
+        System.out.printf("%n%s: json=%d bytes avro=%d bytes (%.0f%%)%n",
+                messageType, json.length, avro.length, 100.0 * avro.length / json.length);
+    }
+
+    @Benchmark
+    public byte[] jsonWrite() throws Exception {
+        return objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] avroWrite() throws Exception {
+        return serializer.serialize("bench", headers(), objectMapper.writeValueAsString(message));
+    }
+
+    @Benchmark
+    public Object jsonRead() throws Exception {
+        return objectMapper.readValue(new String(json, StandardCharsets.UTF_8), type);
+    }
+
+    @Benchmark
+    public Object avroRead() throws Exception {
+        return objectMapper.readValue(deserializer.deserialize("bench", avroHeaders, avro), type);
+    }
+
+    private Headers headers() {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(KafkaRouting.MESSAGE_TYPE_HEADER, messageType.getBytes(StandardCharsets.UTF_8));
+        headers.add(KafkaRouting.TARGET_ORG_HEADER, TARGET.getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+
+    private static DonationRequestMessage request() {
+        List<DonationRequestMessage.DonationItem> items = new ArrayList<>();
+        String[][] donations = {{"ALIMENTOS", "Arroz largo fino", "20"}, {"ALIMENTOS", "Leche en polvo", "15"},
+                {"ROPA", "Camperas de abrigo talle 10", "8"}, {"UTILES_ESCOLARES", "Cuadernos rayados", "40"}};
+        for (String[] d : donations) {
+            items.add(DonationRequestMessage.DonationItem.builder().category(d[0]).description(d[1]).quantity(d[2]).build());
+        }
+        return DonationRequestMessage.builder()
+                .organizationId("empuje-org-001")
+                .requestId("3f2b8c1e-5d4a-4e2b-9c7d-1a2b3c4d5e6f")
+                .donations(items)
+                .timestamp(LocalDateTime.of(2024, 5, 10, 14, 30, 15))
+                .build();
+    }
+
+    private static DonationTransferMessage transfer() {
+        return DonationTransferMessage.builder()
+                .requestId("3f2b8c1e-5d4a-4e2b-9c7d-1a2b3c4d5e6f")
+                .donorOrganizationId("empuje-org-001")
+                .donationCategory("ALIMENTOS")
+                .donationDescription("Arroz largo fino")
+                .quantity("20")
+                .timestamp("2024-05-10T14:30:15.123")
+                .build();
+    }
+}
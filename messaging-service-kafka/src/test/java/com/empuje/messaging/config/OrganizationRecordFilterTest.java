@@ -0,0 +1,64 @@
+package com.empuje.messaging.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrganizationRecordFilterTest {
+
+    @Mock
+    private KafkaRouting kafkaRouting;
+
+    private OrganizationRecordFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new OrganizationRecordFilter(kafkaRouting, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "ignoredTypes", Set.of());
+        ReflectionTestUtils.setField(filter, "ownOriginTopics", Set.of("eventos-solidarios"));
+    }
+
+    @Test
+    void filter_OwnEventOnOwnOriginTopic_IsDiscarded() {
+        // Arrange
+        when(kafkaRouting.getOrganizationId()).thenReturn("org-a");
+
+        // Act & Assert
+        assertTrue(filter.filter(fromOrganization("eventos-solidarios", "org-a")));
+    }
+
+    @Test
+    void filter_OwnRequestOnSharedTopic_IsKept() {
+        // Act & Assert
+        assertFalse(filter.filter(fromOrganization("solicitud-donaciones", "org-a")));
+        assertFalse(filter.filter(fromOrganization("oferta-donaciones", "org-a")));
+        assertFalse(filter.filter(fromOrganization("baja-solicitud-donaciones", "org-a")));
+    }
+
+    @Test
+    void filter_OtherOrganizationEvent_IsKept() {
+        // Arrange
+        when(kafkaRouting.getOrganizationId()).thenReturn("org-a");
+
+        // Act & Assert
+        assertFalse(filter.filter(fromOrganization("eventos-solidarios", "org-b")));
+    }
+
+    private static ConsumerRecord<String, String> fromOrganization(String topic, String organizationId) {
+        ConsumerRecord<String, String> record = new ConsumerRecord<>(topic, 0, 0, null, "{}");
+        record.headers().add(KafkaRouting.ORIGIN_ORG_HEADER, organizationId.getBytes(StandardCharsets.UTF_8));
+        return record;
+    }
+}
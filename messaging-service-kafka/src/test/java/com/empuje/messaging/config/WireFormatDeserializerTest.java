@@ -0,0 +1,118 @@
+package com.empuje.messaging.config;
+
+import com.empuje.messaging.consumer.KafkaBatchProcessor;
+import com.empuje.messaging.model.DonationOfferMessage;
+import com.empuje.messaging.service.MessageDeduplicator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WireFormatDeserializerTest {
+
+    private static final byte[] GARBAGE = {0x13, 0x37, 0x00, 0x7f};
+
+    @Mock
+    private MessageDeduplicator deduplicator;
+
+    @Mock
+    private KafkaRouting kafkaRouting;
+
+    private ErrorHandlingDeserializer<String> deserializer;
+
+    @BeforeEach
+    void setUp() {
+        deserializer = new ErrorHandlingDeserializer<>(
+                new WireFormatDeserializer(new LocalSchemaRegistry(), new PartnerFormats("org-a", Set.of()), "org-a"));
+    }
+
+    @Test
+    void deserialize_JsonWithoutSchema_ReturnsPayload() {
+        // Act
+        String value = deserializer.deserialize("oferta-donaciones", new RecordHeaders(),
+                "{\"offerId\":\"1\"}".getBytes(StandardCharsets.UTF_8));
+
+        // Assert
+        assertEquals("{\"offerId\":\"1\"}", value);
+    }
+
+    @Test
+    void deserialize_UnknownSchema_LeavesExceptionInHeader() {
+        // Arrange
+        Headers headers = avroHeaders("desconocido-v9");
+
+        // Act
+        String value = deserializer.deserialize("oferta-donaciones", headers, GARBAGE);
+
+        // Assert
+        assertNull(value);
+        assertNotNull(headers.lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER));
+    }
+
+    @Test
+    void process_UnreadableRecord_FailsTheBatchAtThatRecord() {
+        // Arrange
+        KafkaBatchProcessor processor = new KafkaBatchProcessor(new ObjectMapper(), deduplicator);
+        ConsumerRecord<String, String> unreadable = unreadableRecord();
+
+        // Act & Assert
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> processor.process(List.of(unreadable), DonationOfferMessage.class, (record, offer) -> fail("no debía procesarse")));
+        assertSame(unreadable, e.getRecord());
+        assertInstanceOf(DeserializationException.class, e.getCause());
+    }
+
+    @Test
+    void nextDestination_UnreadableRecord_KeepsOriginalBytesInDeadLetter() {
+        // Arrange
+        when(kafkaRouting.getOrganizationId()).thenReturn("org-a");
+        KafkaRetryTopics retryTopics = new KafkaRetryTopics(kafkaRouting);
+        ReflectionTestUtils.setField(retryTopics, "attempts", 3);
+        ConsumerRecord<String, String> unreadable = unreadableRecord();
+        DeserializationException cause = assertInstanceOf(DeserializationException.class,
+                assertThrows(BatchListenerFailedException.class, () -> new KafkaBatchProcessor(new ObjectMapper(), deduplicator)
+                        .process(List.of(unreadable), DonationOfferMessage.class, (record, offer) -> { })).getCause());
+
+        // Act
+        ProducerRecord<String, String> dead = retryTopics.nextDestination(unreadable, cause, false);
+
+        // Assert
+        assertEquals("oferta-donaciones-org-a-dlt", dead.topic());
+        assertArrayEquals(GARBAGE, dead.headers().lastHeader(KafkaRetryTopics.ORIGINAL_VALUE_HEADER).value());
+        assertNull(dead.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER));
+    }
+
+    private ConsumerRecord<String, String> unreadableRecord() {
+        Headers headers = avroHeaders("desconocido-v9");
+        String value = deserializer.deserialize("oferta-donaciones", headers, GARBAGE);
+        return new ConsumerRecord<>("oferta-donaciones", 0, 5, 0L, TimestampType.CREATE_TIME, 0, GARBAGE.length,
+                null, value, headers, Optional.empty());
+    }
+
+    private static Headers avroHeaders(String schemaId) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(WireFormat.CONTENT_TYPE_HEADER, WireFormat.avro(schemaId).getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+}
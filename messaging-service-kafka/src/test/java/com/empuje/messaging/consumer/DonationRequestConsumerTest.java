@@ -0,0 +1,79 @@
+package com.empuje.messaging.consumer;
+
+import com.empuje.messaging.model.DonationRequestMessage;
+import com.empuje.messaging.service.DemandWindows;
+import com.empuje.messaging.service.MessageDeduplicator;
+import com.empuje.messaging.service.OpenRequestView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DonationRequestConsumerTest {
+
+    @Mock
+    private MessageDeduplicator deduplicator;
+
+    @Mock
+    private OpenRequestView openRequests;
+
+    @Mock
+    private DemandWindows demand;
+
+    private DonationRequestConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        KafkaBatchProcessor batchProcessor = new KafkaBatchProcessor(new ObjectMapper().findAndRegisterModules(), deduplicator);
+        consumer = new DonationRequestConsumer(batchProcessor, openRequests, demand);
+    }
+
+    @Test
+    void consumeDonationRequests_WithSameIdFromTwoOrganizations_OpensBoth() throws Exception {
+        // Arrange
+        when(deduplicator.findProcessed(any())).thenReturn(Set.of());
+        List<ConsumerRecord<String, String>> records = List.of(
+                record(0, "{\"organizationId\":\"org-b\",\"requestId\":\"1\"}"),
+                record(1, "{\"organizationId\":\"org-c\",\"requestId\":\"1\"}"));
+
+        // Act
+        consumer.consumeDonationRequests(records);
+
+        // Assert
+        ArgumentCaptor<DonationRequestMessage> opened = ArgumentCaptor.forClass(DonationRequestMessage.class);
+        verify(openRequests, times(2)).open(opened.capture());
+        assertEquals(List.of("org-b", "org-c"),
+                opened.getAllValues().stream().map(DonationRequestMessage::getOrganizationId).toList());
+        verify(deduplicator).markProcessed(Set.of("DonationRequestMessage:org-b:1", "DonationRequestMessage:org-c:1"));
+    }
+
+    @Test
+    void consumeDonationRequests_WithRedeliveredRequest_SkipsIt() throws Exception {
+        // Arrange
+        when(deduplicator.findProcessed(any())).thenReturn(Set.of("DonationRequestMessage:org-b:1"));
+        List<ConsumerRecord<String, String>> records = List.of(
+                record(0, "{\"organizationId\":\"org-b\",\"requestId\":\"1\"}"));
+
+        // Act
+        consumer.consumeDonationRequests(records);
+
+        // Assert
+        verify(openRequests, never()).open(any());
+    }
+
+    private static ConsumerRecord<String, String> record(long offset, String payload) {
+        return new ConsumerRecord<>("solicitud-donaciones", 0, offset, null, payload);
+    }
+}
@@ -0,0 +1,102 @@
+package com.empuje.messaging.consumer;
+
+import com.empuje.messaging.config.KafkaRouting;
+import com.empuje.messaging.config.TransactionalKafka;
+import com.empuje.messaging.service.MessageDeduplicator;
+import com.empuje.messaging.service.TransferLedger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DonationTransferConsumerTest {
+
+    private static final String TRANSFER =
+            "{\"requestId\":\"r1\",\"donorOrganizationId\":\"org-b\",\"timestamp\":\"2024-01-01T00:00\"}";
+
+    @Mock
+    private MessageDeduplicator deduplicator;
+
+    @Mock
+    private KafkaRouting kafkaRouting;
+
+    @Mock
+    private TransferLedger ledger;
+
+    @Mock
+    private TransactionalKafka transactionalKafka;
+
+    @Mock
+    private KafkaTemplate<String, String> template;
+
+    private DonationTransferConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        KafkaBatchProcessor batchProcessor = new KafkaBatchProcessor(objectMapper, deduplicator);
+        consumer = new DonationTransferConsumer(batchProcessor, kafkaRouting, ledger, transactionalKafka, objectMapper);
+    }
+
+    @Test
+    void consumeDonationTransfers_WithInvalidRecord_ConfirmsPrefixAndRethrows() {
+        // Arrange
+        List<ConsumerRecord<String, String>> records = List.of(record(0, TRANSFER), record(1, "{"), record(2, TRANSFER));
+        when(ledger.apply(any())).thenAnswer(invocation -> {
+            List<TransferLedger.Received> received = invocation.getArgument(0);
+            return received.stream().map(r -> new TransferLedger.Outcome(r.message(), TransferLedger.APPLIED)).toList();
+        });
+        when(kafkaRouting.toOrganization(anyString(), anyString(), anyString(), anyString(), any()))
+                .thenReturn(new ProducerRecord<>(KafkaRouting.CONFIRMATION_TOPIC, "org-b", "{}"));
+        when(transactionalKafka.getTemplate()).thenReturn(template);
+
+        // Act
+        BatchListenerFailedException thrown = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.consumeDonationTransfers(records));
+
+        // Assert
+        assertEquals(1, ((ConsumerRecord<?, ?>) thrown.getRecord()).offset());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TransferLedger.Received>> applied = ArgumentCaptor.forClass(List.class);
+        verify(ledger).apply(applied.capture());
+        assertEquals(List.of(KafkaRouting.TRANSFER_TOPIC + "-0@0"),
+                applied.getValue().stream().map(TransferLedger.Received::source).toList());
+        verify(template).send(any(ProducerRecord.class));
+    }
+
+    @Test
+    void consumeDonationTransfers_WhenPrefixConfirmationFails_ThrowsItWithOriginalSuppressed() {
+        // Arrange
+        List<ConsumerRecord<String, String>> records = List.of(record(0, TRANSFER), record(1, "{"));
+        KafkaException sendFailure = new KafkaException("sin broker");
+        when(ledger.apply(any())).thenThrow(sendFailure);
+
+        // Act
+        KafkaException thrown = assertThrows(KafkaException.class, () -> consumer.consumeDonationTransfers(records));
+
+        // Assert
+        assertSame(sendFailure, thrown);
+        assertEquals(1, thrown.getSuppressed().length);
+        assertInstanceOf(BatchListenerFailedException.class, thrown.getSuppressed()[0]);
+    }
+
+    private static ConsumerRecord<String, String> record(long offset, String value) {
+        return new ConsumerRecord<>(KafkaRouting.TRANSFER_TOPIC, 0, offset, "org-a", value);
+    }
+}
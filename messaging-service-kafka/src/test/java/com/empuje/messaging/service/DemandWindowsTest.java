@@ -0,0 +1,218 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.config.KafkaRouting;
+import com.empuje.messaging.model.DemandWindow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DemandWindowsTest {
+
+    private static final String TOPIC = "demanda-donaciones-org-a-changelog";
+    private static final Instant NOW = Instant.parse("2026-10-17T10:30:00Z");
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private ConsumerFactory<String, String> consumerFactory;
+
+    @Mock
+    private KafkaRouting kafkaRouting;
+
+    @Mock
+    private Clock clock;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DemandWindows demand;
+
+    @BeforeEach
+    void setUp() {
+        when(kafkaRouting.getOrganizationId()).thenReturn("org-a");
+        meterRegistry = new SimpleMeterRegistry();
+        demand = new DemandWindows(kafkaTemplate, consumerFactory, kafkaRouting, meterRegistry, 168, clock);
+    }
+
+    @Test
+    void windows_Hour_SplitsEventsAtTheHourBoundary() {
+        // Arrange
+        at(NOW);
+        demand.record(DemandWindows.Side.REQUESTED, millis("2026-10-17T09:59:59.999Z"), "org-b", "ROPA");
+        demand.record(DemandWindows.Side.REQUESTED, millis("2026-10-17T10:00:00Z"), "org-b", "ROPA");
+
+        // Act
+        List<DemandWindow> windows = demand.windows(DemandWindows.Window.HOUR, 2, null);
+
+        // Assert
+        assertEquals(Instant.parse("2026-10-17T10:00:00Z"), windows.get(0).getStart());
+        assertEquals(Instant.parse("2026-10-17T11:00:00Z"), windows.get(0).getEnd());
+        assertEquals(1, windows.get(0).getByCategory().get("ROPA").getRequested());
+        assertEquals(Instant.parse("2026-10-17T09:00:00Z"), windows.get(1).getStart());
+        assertEquals(1, windows.get(1).getByCategory().get("ROPA").getRequested());
+    }
+
+    @Test
+    void windows_Day_StartsAtUtcMidnight() {
+        // Arrange
+        at(NOW);
+        demand.record(DemandWindows.Side.OFFERED, millis("2026-10-16T23:59:59.999Z"), "org-b", "ROPA");
+        demand.record(DemandWindows.Side.OFFERED, millis("2026-10-17T00:00:00Z"), "org-b", "ROPA");
+        demand.record(DemandWindows.Side.OFFERED, millis("2026-10-17T10:15:00Z"), "org-c", "ROPA");
+
+        // Act
+        List<DemandWindow> windows = demand.windows(DemandWindows.Window.DAY, 2, null);
+
+        // Assert
+        assertEquals(Instant.parse("2026-10-17T00:00:00Z"), windows.get(0).getStart());
+        assertEquals(2, windows.get(0).getByCategory().get("ROPA").getOffered());
+        assertEquals(Instant.parse("2026-10-16T00:00:00Z"), windows.get(1).getStart());
+        assertEquals(1, windows.get(1).getByCategory().get("ROPA").getOffered());
+    }
+
+    @Test
+    void windows_Last24h_AdvancesOneHourAtATime() {
+        // Arrange
+        at(NOW);
+        demand.record(DemandWindows.Side.REQUESTED, millis("2026-10-16T10:59:00Z"), "org-b", "ALIMENTOS");
+
+        // Act
+        List<DemandWindow> windows = demand.windows(DemandWindows.Window.LAST_24H, 2, null);
+
+        // Assert: [16 11:00, 17 11:00) ya no incluye el panel de las 10; [16 10:00, 17 10:00) sí
+        assertEquals(Instant.parse("2026-10-16T11:00:00Z"), windows.get(0).getStart());
+        assertTrue(windows.get(0).getByCategory().isEmpty());
+        assertEquals(Instant.parse("2026-10-16T10:00:00Z"), windows.get(1).getStart());
+        assertEquals(1, windows.get(1).getByCategory().get("ALIMENTOS").getRequested());
+    }
+
+    @Test
+    void windows_WithOrganization_CountsOnlyThatOrganization() {
+        // Arrange
+        at(NOW);
+        demand.record(DemandWindows.Side.REQUESTED, NOW.toEpochMilli(), "org-b", "ROPA");
+        demand.record(DemandWindows.Side.REQUESTED, NOW.toEpochMilli(), "org-c", "ROPA");
+
+        // Act
+        DemandWindow window = demand.windows(DemandWindows.Window.HOUR, 1, "org-b").get(0);
+
+        // Assert
+        assertEquals(1, window.getByCategory().get("ROPA").getRequested());
+        assertEquals(Map.of("org-b", new DemandWindow.Count(1, 0)), window.getByOrganization());
+    }
+
+    @Test
+    void record_OlderThanRetention_IsDiscarded() {
+        // Arrange: con 168 horas de retención el panel más viejo es el de 2026-10-10T10:00
+        at(NOW);
+
+        // Act
+        demand.record(DemandWindows.Side.REQUESTED, millis("2026-10-10T09:59:59.999Z"), "org-b", "ROPA");
+        demand.record(DemandWindows.Side.REQUESTED, millis("2026-10-10T10:00:00Z"), "org-b", "ROPA");
+
+        // Assert
+        assertEquals(1, demand.cells());
+        assertEquals(1.0, meterRegistry.counter("empuje.demand.late").count());
+    }
+
+    @Test
+    void flush_WritesTouchedPanesWithTheirTotals() {
+        // Arrange
+        at(NOW);
+        when(kafkaTemplate.send(anyString(), anyString(), nullable(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        demand.record(DemandWindows.Side.REQUESTED, NOW.toEpochMilli(), "org-b", "ROPA");
+        demand.record(DemandWindows.Side.REQUESTED, NOW.toEpochMilli(), "org-b", "ROPA");
+        demand.record(DemandWindows.Side.OFFERED, NOW.toEpochMilli(), "org-b", "ROPA");
+
+        // Act
+        demand.flush();
+
+        // Assert
+        verify(kafkaTemplate).send(TOPIC, hourKey("2026-10-17T10:00:00Z", "org-b|ROPA"), "2,1");
+        verify(kafkaTemplate).flush();
+    }
+
+    @Test
+    void purge_AfterRetention_WritesTombstones() {
+        // Arrange
+        at(NOW);
+        when(kafkaTemplate.send(anyString(), anyString(), nullable(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        demand.record(DemandWindows.Side.REQUESTED, NOW.toEpochMilli(), "org-b", "ROPA");
+
+        // Act
+        at(NOW.plus(Duration.ofHours(169)));
+        demand.purge();
+
+        // Assert
+        assertEquals(0, demand.cells());
+        verify(kafkaTemplate).send(TOPIC, hourKey("2026-10-17T10:00:00Z", "org-b|ROPA"), null);
+    }
+
+    @Test
+    void restore_WithTombstones_KeepsOnlyLiveAndRecentPanes() {
+        // Arrange
+        at(NOW);
+        String tombstoned = hourKey("2026-10-17T09:00:00Z", "org-b|ROPA");
+        String live = hourKey("2026-10-17T10:00:00Z", "org-c|JUGUETES");
+        String expired = hourKey("2026-10-01T10:00:00Z", "org-b|ROPA");
+        TopicPartition partition = new TopicPartition(TOPIC, 0);
+        ConsumerRecords<String, String> records = new ConsumerRecords<>(Map.of(partition, List.of(
+                new ConsumerRecord<>(TOPIC, 0, 0, tombstoned, "3,1"),
+                new ConsumerRecord<>(TOPIC, 0, 1, live, "2,0"),
+                new ConsumerRecord<>(TOPIC, 0, 2, expired, "5,5"),
+                new ConsumerRecord<>(TOPIC, 0, 3, tombstoned, (String) null))));
+        Consumer<String, String> consumer = mock(Consumer.class);
+        when(consumerFactory.createConsumer("empuje-demand-restore", "restore")).thenReturn(consumer);
+        when(consumer.partitionsFor(TOPIC)).thenReturn(List.of(new PartitionInfo(TOPIC, 0, null, null, null)));
+        when(consumer.endOffsets(List.of(partition))).thenReturn(Map.of(partition, 4L));
+        when(consumer.position(partition)).thenReturn(0L, 4L);
+        when(consumer.poll(any(Duration.class))).thenReturn(records);
+        when(kafkaTemplate.send(anyString(), anyString(), nullable(String.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        demand.restore();
+
+        // Assert
+        assertEquals(1, demand.cells());
+        DemandWindow window = demand.windows(DemandWindows.Window.DAY, 1, null).get(0);
+        assertEquals(Map.of("JUGUETES", new DemandWindow.Count(2, 0)), window.getByCategory());
+        verify(kafkaTemplate).send(TOPIC, expired, null);
+        verify(kafkaTemplate, never()).send(TOPIC, tombstoned, null);
+    }
+
+    private void at(Instant instant) {
+        when(clock.millis()).thenReturn(instant.toEpochMilli());
+    }
+
+    private static long millis(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+
+    private static String hourKey(String hour, String cell) {
+        return Instant.parse(hour).toEpochMilli() + "|" + cell;
+    }
+}
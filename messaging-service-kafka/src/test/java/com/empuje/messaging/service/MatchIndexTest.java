@@ -0,0 +1,82 @@
+package com.empuje.messaging.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchIndexTest {
+
+    private MatchIndex<String> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MatchIndex<>();
+    }
+
+    @Test
+    void match_WithSharedWords_ReturnsDocumentInSameCategory() {
+        // Arrange
+        index.put("org-a|1", "abrigos", List.of(new MatchIndex.Entry("ROPA", "Abrigos de invierno")));
+        index.put("org-a|2", "arroz", List.of(new MatchIndex.Entry("ALIMENTOS", "Arroz integral")));
+
+        // Act
+        List<MatchIndex.Candidate<String>> candidates = index.match("ropa", "abrigo invierno", 0.3, 10);
+
+        // Assert
+        assertEquals(1, candidates.size());
+        assertEquals("org-a|1", candidates.get(0).key());
+        assertEquals(1.0, candidates.get(0).score());
+    }
+
+    @Test
+    void remove_AfterCancellation_DocumentNoLongerMatches() {
+        // Arrange
+        index.put("org-a|1", "abrigos", List.of(new MatchIndex.Entry("ROPA", "Abrigos de invierno")));
+
+        // Act
+        boolean removed = index.remove("org-a|1");
+
+        // Assert
+        assertTrue(removed);
+        assertEquals(0, index.size());
+        assertTrue(index.match("ROPA", "abrigos de invierno", 0.0, 10).isEmpty());
+    }
+
+    @Test
+    void remove_WithUnknownKey_ReturnsFalse() {
+        // Act & Assert
+        assertFalse(index.remove("org-a|99"));
+    }
+
+    @Test
+    void remove_OneOfSeveralSharingWords_KeepsTheOthers() {
+        // Arrange
+        index.put("org-a|1", "abrigos", List.of(new MatchIndex.Entry("ROPA", "Abrigos de invierno")));
+        index.put("org-b|7", "camperas", List.of(new MatchIndex.Entry("ROPA", "Camperas de invierno")));
+
+        // Act
+        index.remove("org-a|1");
+        List<MatchIndex.Candidate<String>> candidates = index.match("ROPA", "invierno", 0.0, 10);
+
+        // Assert
+        assertEquals(1, candidates.size());
+        assertEquals("org-b|7", candidates.get(0).key());
+    }
+
+    @Test
+    void put_WithExistingKey_ReplacesPreviousTerms() {
+        // Arrange
+        index.put("org-a|1", "abrigos", List.of(new MatchIndex.Entry("ROPA", "Abrigos de invierno")));
+
+        // Act
+        index.put("org-a|1", "pelotas", List.of(new MatchIndex.Entry("JUGUETES", "Pelotas de futbol")));
+
+        // Assert
+        assertEquals(1, index.size());
+        assertTrue(index.match("ROPA", "abrigos", 0.0, 10).isEmpty());
+        assertEquals("pelotas", index.match("JUGUETES", "pelotas", 0.0, 10).get(0).value());
+    }
+}
@@ -0,0 +1,128 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.config.KafkaRouting;
+import com.empuje.messaging.model.DonationOfferMessage;
+import com.empuje.messaging.model.DonationRequestMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MatchingServiceTest {
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private ConsumerFactory<String, String> consumerFactory;
+
+    @Mock
+    private KafkaRouting kafkaRouting;
+
+    private MatchingService matching;
+    private OpenRequestView view;
+
+    @BeforeEach
+    void setUp() {
+        when(kafkaRouting.getOrganizationId()).thenReturn("org-a");
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        matching = new MatchingService(kafkaTemplate, objectMapper, kafkaRouting, meterRegistry, 0.3, 10, 100, 100);
+        view = new OpenRequestView(kafkaTemplate, consumerFactory, objectMapper, matching, kafkaRouting, meterRegistry);
+    }
+
+    @Test
+    void onOffer_WithOpenRequest_EmitsMatch() throws Exception {
+        // Arrange
+        ProducerRecord<String, String> record = new ProducerRecord<>("coincidencia-donaciones-org-a", "org-b|1", "{}");
+        when(kafkaRouting.record(eq("coincidencia-donaciones-org-a"), eq("org-b|1"), anyString(), anyString(), eq("org-a")))
+                .thenReturn(record);
+        view.open(request("org-b", "1", "ROPA", "Abrigos de invierno"));
+
+        // Act
+        matching.onOffer(offer("org-c", "10", "ROPA", "Abrigos invierno"));
+
+        // Assert
+        assertEquals(1, matching.recentMatches(null, 10).size());
+        assertEquals("1", matching.recentMatches(null, 10).get(0).getRequestId());
+        verify(kafkaTemplate).send(record);
+    }
+
+    @Test
+    void onOffer_AfterRequestCancelled_EmitsNothing() throws Exception {
+        // Arrange
+        view.open(request("org-b", "1", "ROPA", "Abrigos de invierno"));
+
+        // Act
+        view.close("org-b", "1");
+        matching.onOffer(offer("org-c", "10", "ROPA", "Abrigos invierno"));
+
+        // Assert
+        assertTrue(matching.recentMatches(null, 10).isEmpty());
+        verify(kafkaRouting, never()).record(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void onOffer_WithCancellationBeforeRequest_EmitsNothing() throws Exception {
+        // Arrange: la baja llega antes que la solicitud, que entonces no se indexa
+        view.close("org-b", "1");
+        view.open(request("org-b", "1", "ROPA", "Abrigos de invierno"));
+
+        // Act
+        matching.onOffer(offer("org-c", "10", "ROPA", "Abrigos invierno"));
+
+        // Assert
+        assertEquals(0, view.size());
+        assertTrue(matching.recentMatches(null, 10).isEmpty());
+    }
+
+    @Test
+    void onOffer_AfterOneOfTwoRequestsCancelled_MatchesOnlyTheOpenOne() throws Exception {
+        // Arrange
+        view.open(request("org-b", "1", "ROPA", "Abrigos de invierno"));
+        view.open(request("org-d", "2", "ROPA", "Abrigos para invierno"));
+        view.close("org-b", "1");
+
+        // Act
+        matching.onOffer(offer("org-c", "10", "ROPA", "Abrigos invierno"));
+
+        // Assert
+        List<String> matched = matching.recentMatches(null, 10).stream()
+                .map(m -> m.getRequestOrganizationId() + "|" + m.getRequestId())
+                .toList();
+        assertEquals(List.of("org-d|2"), matched);
+    }
+
+    private static DonationRequestMessage request(String organizationId, String requestId, String category, String description) {
+        return DonationRequestMessage.builder()
+                .organizationId(organizationId)
+                .requestId(requestId)
+                .donations(List.of(DonationRequestMessage.DonationItem.builder()
+                        .category(category)
+                        .description(description)
+                        .build()))
+                .build();
+    }
+
+    private static DonationOfferMessage offer(String donorOrganizationId, String offerId, String category, String description) {
+        return DonationOfferMessage.builder()
+                .donorOrganizationId(donorOrganizationId)
+                .offerId(offerId)
+                .donationCategory(category)
+                .donationDescription(description)
+                .build();
+    }
+}
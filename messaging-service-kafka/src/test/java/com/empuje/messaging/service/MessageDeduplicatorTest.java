@@ -0,0 +1,114 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.model.ProcessedMessage;
+import com.empuje.messaging.repository.ProcessedMessageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MessageDeduplicatorTest {
+
+    private static final long WINDOW_HOURS = 168;
+
+    @Mock
+    private ProcessedMessageRepository repository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private MessageDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        deduplicator = new MessageDeduplicator(repository, jdbcTemplate, new SimpleMeterRegistry(),
+                WINDOW_HOURS, 1000, 0.01);
+    }
+
+    @Test
+    void findProcessed_WithUnseenKeys_SkipsDatabase() {
+        // Act
+        Set<String> processed = deduplicator.findProcessed(List.of("oferta:1", "oferta:2"));
+
+        // Assert
+        assertTrue(processed.isEmpty());
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void findProcessed_WithMarkedKey_ConfirmsAgainstTable() {
+        // Arrange
+        deduplicator.markProcessed(List.of("oferta:1"));
+        when(repository.findAllById(any())).thenReturn(List.of(new ProcessedMessage("oferta:1", Instant.now())));
+
+        // Act
+        Set<String> processed = deduplicator.findProcessed(List.of("oferta:1"));
+
+        // Assert
+        assertEquals(Set.of("oferta:1"), processed);
+        verify(repository).findAllById(List.of("oferta:1"));
+        verify(jdbcTemplate).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void rotate_Once_KeepsKeysInPreviousGeneration() {
+        // Arrange
+        deduplicator.markProcessed(List.of("oferta:1"));
+        when(repository.findAllById(any())).thenReturn(List.of(new ProcessedMessage("oferta:1", Instant.now())));
+
+        // Act
+        deduplicator.rotate();
+        Set<String> processed = deduplicator.findProcessed(List.of("oferta:1"));
+
+        // Assert
+        assertEquals(Set.of("oferta:1"), processed);
+        verify(repository).findAllById(List.of("oferta:1"));
+    }
+
+    @Test
+    void rotate_Twice_ForgetsKeysTheTableNoLongerHas() {
+        // Arrange
+        deduplicator.markProcessed(List.of("oferta:1"));
+
+        // Act
+        deduplicator.rotate();
+        deduplicator.rotate();
+        Set<String> processed = deduplicator.findProcessed(List.of("oferta:1"));
+
+        // Assert
+        assertTrue(processed.isEmpty());
+        verify(repository, never()).findAllById(any());
+    }
+
+    @Test
+    void rotate_PurgesOnlyKeysOlderThanWindow() {
+        // Arrange
+        ArgumentCaptor<Instant> cutoff = ArgumentCaptor.forClass(Instant.class);
+        Instant before = Instant.now();
+
+        // Act
+        deduplicator.rotate();
+        Instant after = Instant.now();
+
+        // Assert: a key marked right before the rotation stays in the table and in the
+        // previous filter, so neither forgets it before the other
+        verify(repository).deleteProcessedBefore(cutoff.capture());
+        Duration window = Duration.ofHours(WINDOW_HOURS);
+        assertFalse(cutoff.getValue().isBefore(before.minus(window)));
+        assertFalse(cutoff.getValue().isAfter(after.minus(window)));
+    }
+}
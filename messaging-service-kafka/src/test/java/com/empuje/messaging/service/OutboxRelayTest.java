@@ -0,0 +1,146 @@
+package com.empuje.messaging.service;
+
+import com.empuje.messaging.model.OutboxMessage;
+import com.empuje.messaging.repository.OutboxMessageRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock
+    private OutboxMessageRepository repository;
+
+    @Mock
+    private OutboxService outbox;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(repository, outbox, kafkaTemplate, transactionManager, meterRegistry,
+                500, 1000, MAX_ATTEMPTS);
+        lenient().when(outbox.toRecord(any())).thenAnswer(invocation -> {
+            OutboxMessage message = invocation.getArgument(0);
+            return new ProducerRecord<>(message.getTopic(), message.getMessageKey(), message.getPayload());
+        });
+    }
+
+    @Test
+    void relay_WhenSendFails_KeepsLaterMessagesWithSameKey() {
+        // Arrange
+        OutboxMessage first = message(1L, "a", 0);
+        OutboxMessage other = message(2L, "b", 0);
+        OutboxMessage second = message(3L, "a", 0);
+        when(repository.lockNextBatch(500)).thenReturn(List.of(first, other, second));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(
+                CompletableFuture.failedFuture(new RecordTooLargeException("demasiado grande")),
+                CompletableFuture.completedFuture(mock(SendResult.class)),
+                CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(repository).deleteAllByIdInBatch(List.of(2L));
+        assertEquals(1, first.getAttempts());
+        assertNull(first.getParkedAt());
+        assertEquals(0, second.getAttempts());
+        assertEquals(1.0, meterRegistry.get("empuje.outbox.relayed").tag("result", "held").counter().count());
+    }
+
+    @Test
+    void relay_WhenToRecordFails_DoesNotSendLaterMessagesWithSameKey() throws Exception {
+        // Arrange
+        OutboxMessage first = message(1L, "a", 0);
+        OutboxMessage second = message(2L, "a", 0);
+        when(repository.lockNextBatch(500)).thenReturn(List.of(first, second));
+        doThrow(new IllegalStateException("headers ilegibles")).when(outbox).toRecord(first);
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+        verify(repository, never()).deleteAllByIdInBatch(any());
+        assertEquals(1, first.getAttempts());
+        assertEquals(0, second.getAttempts());
+    }
+
+    @Test
+    void relay_WhenAttemptsExhausted_ParksMessageAndReleasesKey() {
+        // Arrange
+        OutboxMessage poison = message(1L, "a", MAX_ATTEMPTS - 1);
+        OutboxMessage next = message(2L, "a", 0);
+        when(repository.lockNextBatch(500)).thenReturn(List.of(poison, next));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(
+                CompletableFuture.failedFuture(new RecordTooLargeException("demasiado grande")),
+                CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        assertEquals(MAX_ATTEMPTS, poison.getAttempts());
+        assertNotNull(poison.getParkedAt());
+        verify(repository).deleteAllByIdInBatch(List.of(2L));
+        assertEquals(1.0, meterRegistry.get("empuje.outbox.relayed").tag("result", "parked").counter().count());
+    }
+
+    @Test
+    void relay_WithoutKey_DoesNotHoldOtherMessages() {
+        // Arrange
+        OutboxMessage first = message(1L, null, 0);
+        OutboxMessage second = message(2L, null, 0);
+        when(repository.lockNextBatch(500)).thenReturn(List.of(first, second));
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(
+                CompletableFuture.failedFuture(new RecordTooLargeException("demasiado grande")),
+                CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        verify(repository).deleteAllByIdInBatch(List.of(2L));
+        assertEquals(1, first.getAttempts());
+    }
+
+    private static OutboxMessage message(long id, String key, int attempts) {
+        return OutboxMessage.builder()
+                .id(id)
+                .topic("solicitud-donaciones")
+                .messageKey(key)
+                .payload("{}")
+                .createdAt(Instant.now())
+                .attempts(attempts)
+                .build();
+    }
+}
@@ -0,0 +1,143 @@
+package com.empuje.userservice.config;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.interceptor.GrpcGlobalServerInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds how many gRPC handlers do work at once, by default to the Hikari pool size, so a
+ * burst of calls (especially on virtual threads) is turned away instead of thrashing the
+ * database. The permit is taken without waiting, so no executor thread ever blocks here:
+ * a call that finds none free fails at once with RESOURCE_EXHAUSTED and the client retries.
+ *
+ * <p>A call holds its permit until the handler closes it (or it is cancelled), which for a
+ * server stream is when the last page has been read, not when the client has received it.
+ * Long-lived streams listed in {@code empuje.grpc.executor.exempt-methods} never take one:
+ * they would otherwise pin a permit for as long as the subscriber stays connected.
+ *
+ * <p>Per method it records {@code grpc.server.calls.inflight} and
+ * {@code grpc.server.calls.rejected}.
+ */
+@Slf4j
+@GrpcGlobalServerInterceptor
+public class GrpcConcurrencyLimitInterceptor implements ServerInterceptor {
+
+    private final Semaphore permits;
+    private final Set<String> exemptMethods;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public GrpcConcurrencyLimitInterceptor(
+            @Value("${empuje.grpc.executor.max-concurrent-calls:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrentCalls,
+            @Value("${empuje.grpc.executor.exempt-methods:}") Set<String> exemptMethods,
+            MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrentCalls);
+        this.exemptMethods = exemptMethods;
+        this.meterRegistry = meterRegistry;
+        log.info("gRPC concurrency limited to {} calls (exempt: {})", maxConcurrentCalls, exemptMethods);
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String methodName = call.getMethodDescriptor().getFullMethodName();
+        if (exemptMethods.contains(methodName)) {
+            return next.startCall(call, headers);
+        }
+        MethodMeters method = meters.computeIfAbsent(methodName, this::register);
+        Permit permit = new Permit(method);
+        ServerCall<ReqT, RespT> releasing = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                try {
+                    super.close(status, trailers);
+                } finally {
+                    permit.release();
+                }
+            }
+        };
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(releasing, headers)) {
+            // Unary and server-streaming handlers start in onHalfClose.
+            @Override
+            public void onHalfClose() {
+                if (!permit.tryAcquire()) {
+                    method.rejected.increment();
+                    call.close(Status.RESOURCE_EXHAUSTED.withDescription("Server busy, try again"), new Metadata());
+                    return;
+                }
+                try {
+                    super.onHalfClose();
+                } catch (RuntimeException | Error e) {
+                    permit.release();
+                    throw e;
+                }
+            }
+
+            @Override
+            public void onCancel() {
+                try {
+                    super.onCancel();
+                } finally {
+                    permit.release();
+                }
+            }
+        };
+    }
+
+    private MethodMeters register(String method) {
+        AtomicInteger inFlight = new AtomicInteger();
+        Gauge.builder("grpc.server.calls.inflight", inFlight, AtomicInteger::get)
+                .tag("method", method)
+                .register(meterRegistry);
+        Counter rejected = Counter.builder("grpc.server.calls.rejected")
+                .tag("method", method)
+                .register(meterRegistry);
+        return new MethodMeters(inFlight, rejected);
+    }
+
+    /** One call's share of the limit; released once, by whichever of close or cancel comes first. */
+    private final class Permit {
+        private final MethodMeters method;
+        private final AtomicBoolean held = new AtomicBoolean();
+
+        Permit(MethodMeters method) {
+            this.method = method;
+        }
+
+        boolean tryAcquire() {
+            if (!permits.tryAcquire()) {
+                return false;
+            }
+            held.set(true);
+            method.inFlight.incrementAndGet();
+            return true;
+        }
+
+        void release() {
+            if (held.compareAndSet(true, false)) {
+                method.inFlight.decrementAndGet();
+                permits.release();
+            }
+        }
+    }
+
+    private record MethodMeters(AtomicInteger inFlight, Counter rejected) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.empuje.userservice.config;
+
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Chooses the executor gRPC calls run on (empuje.grpc.executor.mode):
+ * <ul>
+ *   <li>{@code platform} (default): grpc-java's shared cached thread pool.</li>
+ *   <li>{@code virtual}: one virtual thread per task, so calls blocked on JPA don't pin
+ *       a platform thread. Requires a Java 21+ runtime; on older runtimes it logs a
+ *       warning and keeps the platform pool.</li>
+ * </ul>
+ * In both modes {@link GrpcConcurrencyLimitInterceptor} caps concurrent calls to what
+ * the connection pool can serve.
+ */
+@Slf4j
+@Configuration
+public class GrpcExecutorConfig {
+
+    @Bean
+    public GrpcServerConfigurer grpcExecutorConfigurer(@Value("${empuje.grpc.executor.mode:platform}") String mode) {
+        if (!"virtual".equalsIgnoreCase(mode)) {
+            log.info("gRPC calls run on the platform thread pool");
+            return serverBuilder -> { };
+        }
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        if (executor == null) {
+            log.warn("Virtual threads need Java 21+ (running {}); using the platform thread pool",
+                    System.getProperty("java.version"));
+            return serverBuilder -> { };
+        }
+        log.info("gRPC calls run on virtual threads");
+        return serverBuilder -> serverBuilder.executor(executor);
+    }
+
+    /** Looked up reflectively so the service still compiles for Java 17. */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}